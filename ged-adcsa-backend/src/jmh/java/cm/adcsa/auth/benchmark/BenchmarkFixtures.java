@@ -0,0 +1,157 @@
+package cm.adcsa.auth.benchmark;
+
+import cm.adcsa.auth.entity.JwtSigningKey;
+import cm.adcsa.auth.entity.Role;
+import cm.adcsa.auth.entity.Utilisateur;
+import cm.adcsa.auth.enums.StatutUtilisateur;
+import cm.adcsa.auth.repository.JwtSigningKeyRepository;
+import cm.adcsa.auth.repository.RevokedTokenRepository;
+import cm.adcsa.auth.repository.RevokedUtilisateurRepository;
+import cm.adcsa.auth.repository.RoleRepository;
+import cm.adcsa.auth.repository.UtilisateurRepository;
+import cm.adcsa.auth.security.JwtKeyRing;
+import cm.adcsa.auth.security.JwtTokenProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Objets du domaine montés sans contexte Spring ni base de données : les
+ * repositories sont remplacés par des implémentations en mémoire minimales.
+ */
+final class BenchmarkFixtures {
+
+    static final String JWT_SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+    static final long JWT_EXPIRATION_MS = 86_400_000L;
+    static final String JWT_KEY_ENCRYPTION_KEY = "Yh5VLrRSSnFlnR3BgBNMtvSy17oM5OnP9ZiMHogvhbk=";
+
+    private BenchmarkFixtures() {
+    }
+
+    static JwtTokenProvider jwtTokenProvider(String algorithm) {
+        JwtKeyRing keyRing = new JwtKeyRing(inMemoryKeyRepository(), algorithm,
+                Duration.ofDays(30), Duration.ofHours(1), JWT_EXPIRATION_MS, JWT_KEY_ENCRYPTION_KEY);
+        ReflectionTestUtils.invokeMethod(keyRing, "init");
+
+        JwtTokenProvider provider = new JwtTokenProvider(keyRing);
+        ReflectionTestUtils.setField(provider, "jwtSecret", JWT_SECRET);
+        ReflectionTestUtils.setField(provider, "jwtExpirationInMs", JWT_EXPIRATION_MS);
+        ReflectionTestUtils.setField(provider, "refreshTokenExpirationInMs", 7 * JWT_EXPIRATION_MS);
+        ReflectionTestUtils.invokeMethod(provider, "init");
+        return provider;
+    }
+
+    static Utilisateur utilisateur(int roleCount) {
+        Utilisateur utilisateur = Utilisateur.builder()
+                .id(1L)
+                .nom("Benchmark")
+                .prenom("Utilisateur")
+                .email("bench@adcsa.cm")
+                .username("bench")
+                .password("$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy")
+                .statut(StatutUtilisateur.ACTIF)
+                .build();
+        for (int i = 0; i < roleCount; i++) {
+            utilisateur.addRole(Role.builder().id((long) i + 1).nom("ROLE_" + i).build());
+        }
+        return utilisateur;
+    }
+
+    static JwtSigningKeyRepository inMemoryKeyRepository() {
+        List<JwtSigningKey> keys = new ArrayList<>();
+        return repository(JwtSigningKeyRepository.class, (method, args) -> {
+            switch (method) {
+                case "save":
+                case "saveAndFlush":
+                    keys.add((JwtSigningKey) args[0]);
+                    return args[0];
+                case "findByExpiresAtAfterOrderByActivatesAtDesc":
+                    LocalDateTime now = (LocalDateTime) args[0];
+                    return keys.stream()
+                            .filter(key -> key.getExpiresAt().isAfter(now))
+                            .sorted(Comparator.comparing(JwtSigningKey::getActivatesAt).reversed())
+                            .toList();
+                case "deleteExpiredKeys":
+                    return 0;
+                default:
+                    throw new UnsupportedOperationException(method);
+            }
+        });
+    }
+
+    static RevokedTokenRepository emptyRevokedTokenRepository() {
+        return repository(RevokedTokenRepository.class, (method, args) -> {
+            switch (method) {
+                case "findActiveJtis":
+                    return List.of();
+                case "countActive":
+                    return 0L;
+                case "deleteExpired":
+                    return 0;
+                case "existsById":
+                    return false;
+                default:
+                    throw new UnsupportedOperationException(method);
+            }
+        });
+    }
+
+    static UtilisateurRepository emptyUtilisateurRepository() {
+        return repository(UtilisateurRepository.class, (method, args) -> {
+            switch (method) {
+                case "findSecurityVersions":
+                    return List.of();
+                case "findByUsername":
+                case "findByEmail":
+                    return Optional.empty();
+                default:
+                    throw new UnsupportedOperationException(method);
+            }
+        });
+    }
+
+    static RevokedUtilisateurRepository emptyRevokedUtilisateurRepository() {
+        return repository(RevokedUtilisateurRepository.class, (method, args) -> {
+            if ("findActiveIds".equals(method)) {
+                return List.of();
+            }
+            throw new UnsupportedOperationException(method);
+        });
+    }
+
+    static RoleRepository emptyRoleRepository() {
+        return repository(RoleRepository.class, (method, args) -> {
+            if (method.equals("findRolePermissions")) {
+                return List.of();
+            }
+            throw new UnsupportedOperationException(method);
+        });
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object invoke(String method, Object[] args);
+    }
+
+    private static <T> T repository(Class<T> type, Handler handler) {
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+            switch (method.getName()) {
+                case "toString":
+                    return type.getSimpleName() + "(en mémoire)";
+                case "hashCode":
+                    return System.identityHashCode(self);
+                case "equals":
+                    return self == args[0];
+                default:
+                    return handler.invoke(method.getName(), args);
+            }
+        });
+        return type.cast(proxy);
+    }
+}
@@ -0,0 +1,93 @@
+package cm.adcsa.auth.benchmark;
+
+import cm.adcsa.auth.security.InMemoryClusterCoordinator;
+import cm.adcsa.auth.security.JwtAuthenticationFilter;
+import cm.adcsa.auth.security.JwtTokenProvider;
+import cm.adcsa.auth.security.PermissionRegistry;
+import cm.adcsa.auth.security.PrincipalCache;
+import cm.adcsa.auth.security.SecurityVersionRegistry;
+import cm.adcsa.auth.security.TokenRevocationService;
+import cm.adcsa.auth.security.UserPrincipal;
+import cm.adcsa.auth.security.VerifiedTokenCache;
+import cm.adcsa.auth.service.CustomUserDetailsService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Traitement complet d'une requête porteuse d'un token Bearer par le filtre JWT,
+ * du parsing de l'en-tête jusqu'à l'authentification placée dans le contexte.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    @Param({"HS256", "RS256"})
+    public String algorithm;
+
+    @Param({"true", "false"})
+    public boolean cacheEnabled;
+
+    private JwtAuthenticationFilter filter;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        JwtTokenProvider tokenProvider = BenchmarkFixtures.jwtTokenProvider(algorithm);
+        InMemoryClusterCoordinator coordinator = new InMemoryClusterCoordinator(1_000, 1);
+
+        SecurityVersionRegistry securityVersionRegistry =
+                new SecurityVersionRegistry(BenchmarkFixtures.emptyUtilisateurRepository(),
+                        BenchmarkFixtures.emptyRevokedUtilisateurRepository(), coordinator);
+        TokenRevocationService tokenRevocationService =
+                new TokenRevocationService(BenchmarkFixtures.emptyRevokedTokenRepository(), coordinator, 100_000, 0.001);
+
+        filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "tokenProvider", tokenProvider);
+        ReflectionTestUtils.setField(filter, "userDetailsService",
+                new CustomUserDetailsService(BenchmarkFixtures.emptyUtilisateurRepository(),
+                        new PermissionRegistry(BenchmarkFixtures.emptyRoleRepository(), coordinator),
+                        new PrincipalCache(true, 10_000, 16, Duration.ofMinutes(5), securityVersionRegistry,
+                                coordinator)));
+        ReflectionTestUtils.setField(filter, "securityVersionRegistry", securityVersionRegistry);
+        ReflectionTestUtils.setField(filter, "verifiedTokenCache", new VerifiedTokenCache(cacheEnabled, 10_000, 16));
+        ReflectionTestUtils.setField(filter, "tokenRevocationService", tokenRevocationService);
+        ReflectionTestUtils.setField(filter, "statelessPrincipal", true);
+
+        authorization = "Bearer " + tokenProvider.generateAccessToken(
+                UserPrincipal.create(BenchmarkFixtures.utilisateur(3)));
+    }
+
+    @Benchmark
+    public Authentication bearerRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users");
+        request.addHeader("Authorization", authorization);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package cm.adcsa.auth.benchmark;
+
+import cm.adcsa.auth.security.JwtTokenProvider;
+import cm.adcsa.auth.security.UserPrincipal;
+import cm.adcsa.auth.security.VerifiedToken;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Génération et vérification des tokens d'accès, pour chaque algorithme de signature supporté.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtTokenBenchmark {
+
+    @Param({"HS256", "RS256", "ES256", "EdDSA"})
+    public String algorithm;
+
+    private JwtTokenProvider tokenProvider;
+    private UserPrincipal principal;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        tokenProvider = BenchmarkFixtures.jwtTokenProvider(algorithm);
+        principal = UserPrincipal.create(BenchmarkFixtures.utilisateur(3));
+        token = tokenProvider.generateAccessToken(principal);
+    }
+
+    @Benchmark
+    public String generateAccessToken() {
+        return tokenProvider.generateAccessToken(principal);
+    }
+
+    @Benchmark
+    public VerifiedToken verify() {
+        return tokenProvider.parse(token);
+    }
+
+    @Benchmark
+    public UserPrincipal verifyAndBuildPrincipal() {
+        return tokenProvider.toPrincipal(tokenProvider.parse(token));
+    }
+}
@@ -0,0 +1,71 @@
+package cm.adcsa.auth.benchmark;
+
+import cm.adcsa.auth.security.JwtTokenProvider;
+import cm.adcsa.auth.security.UserPrincipal;
+import cm.adcsa.auth.security.VerifiedToken;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Référence HS256 : comportement historique (clé HMAC décodée et parser reconstruit
+ * à chaque appel) comparé au parser partagé de {@link JwtTokenProvider}. Le cas
+ * {@code legacyValidateThenGetUsername} reproduit le chemin du filtre avant le
+ * parser partagé : validateToken puis getUsernameFromToken, soit deux vérifications
+ * de signature par requête. Débit mono-thread, en requêtes par seconde.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LegacyJwtParserBenchmark {
+
+    private JwtTokenProvider tokenProvider;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        tokenProvider = BenchmarkFixtures.jwtTokenProvider("HS256");
+        token = tokenProvider.generateAccessToken(UserPrincipal.create(BenchmarkFixtures.utilisateur(3)));
+    }
+
+    @Benchmark
+    public Claims perCallParser() {
+        return legacyParse(token);
+    }
+
+    @Benchmark
+    public String legacyValidateThenGetUsername() {
+        legacyParse(token);
+        return legacyParse(token).getSubject();
+    }
+
+    @Benchmark
+    public VerifiedToken sharedParser() {
+        return tokenProvider.parse(token);
+    }
+
+    // Clé HMAC décodée et parser reconstruit à chaque appel, comme avant le parser partagé
+    private static Claims legacyParse(String token) {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(BenchmarkFixtures.JWT_SECRET)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+}
@@ -0,0 +1,62 @@
+package cm.adcsa.auth.benchmark;
+
+import cm.adcsa.auth.enums.Permission;
+import cm.adcsa.auth.security.PermissionMaskEvaluator;
+import cm.adcsa.auth.security.UserPrincipal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vérification d'autorisation : recherche de l'autorité {@code ROLE_ADMIN} parmi N rôles
+ * (équivalent de {@code hasRole}) contre un test de bit sur le masque du principal.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PermissionCheckBenchmark {
+
+    @Param({"1", "5", "20"})
+    public int roleCount;
+
+    private final PermissionMaskEvaluator evaluator = new PermissionMaskEvaluator();
+    private Authentication authentication;
+
+    @Setup
+    public void setUp() {
+        UserPrincipal principal = UserPrincipal.create(BenchmarkFixtures.utilisateur(roleCount));
+        principal.setPermissions(Permission.USER_READ.getMask() | Permission.DOCUMENT_READ.getMask());
+        authentication = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+
+    @Benchmark
+    public boolean authorityScan() {
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            if ("ROLE_ADMIN".equals(authority.getAuthority())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean permissionMask() {
+        return evaluator.hasPermission(authentication, null, "DOCUMENT_READ");
+    }
+}
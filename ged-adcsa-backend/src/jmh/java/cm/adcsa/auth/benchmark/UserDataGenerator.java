@@ -0,0 +1,183 @@
+package cm.adcsa.auth.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Jeu de données volumineux et reproductible (même graine, mêmes lignes) sur le schéma
+ * Flyway (version 9 ou ultérieure) : utilisateurs, rôles, tokens de réinitialisation et
+ * historique des mots de passe. Les distributions imitent la production : peu de comptes
+ * bloqués, quelques premières connexions en attente, des mots de passe changés sur deux ans.
+ *
+ * <pre>
+ * mvn -Pjmh test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=cm.adcsa.auth.benchmark.UserDataGenerator \
+ *     -Dexec.args="jdbc:postgresql://localhost:5432/auth_db postgres postgres 1000000"
+ * </pre>
+ */
+public final class UserDataGenerator {
+
+    static final long DEFAULT_SEED = 20240601L;
+    // Date de référence fixe : les données ne dépendent pas du jour de génération
+    static final LocalDateTime REFERENCE_DATE = LocalDateTime.of(2024, 6, 1, 0, 0);
+    static final String PASSWORD_HASH = "$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy";
+
+    private static final int BATCH_SIZE = 10_000;
+
+    private final long seed;
+
+    public UserDataGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    public static void main(String[] args) throws SQLException {
+        if (args.length < 4) {
+            System.err.println("Usage: UserDataGenerator <url> <utilisateur> <mot de passe> <nombre> [graine]");
+            System.exit(1);
+        }
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : DEFAULT_SEED;
+        try (Connection connection = DriverManager.getConnection(args[0], args[1], args[2])) {
+            long start = System.nanoTime();
+            int created = new UserDataGenerator(seed).generate(connection, Integer.parseInt(args[3]));
+            System.out.printf("%d utilisateurs générés en %d s%n", created, (System.nanoTime() - start) / 1_000_000_000L);
+        }
+    }
+
+    /**
+     * Ajoute {@code count} utilisateurs nommés {@code user0000001}... à la suite des
+     * identifiants existants. Les adresses sont en casse mixte pour exercer les recherches
+     * insensibles à la casse.
+     *
+     * @return le nombre d'utilisateurs créés
+     */
+    public int generate(Connection connection, int count) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        SplittableRandom random = new SplittableRandom(seed);
+        long firstId = nextId(connection);
+        try (PreparedStatement users = connection.prepareStatement("INSERT INTO \"utilisateur\" (id, nom, prenom, " +
+                     "email, username, password, statut, date_creation, is_first_login, password_changed_at, " +
+                     "first_login_expires_at, compte_verrouille, tentatives_connexion) " +
+                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)");
+             PreparedStatement roles = connection.prepareStatement(
+                     "INSERT INTO utilisateur_role (utilisateur_id, role_id) VALUES (?, ?)");
+             PreparedStatement tokens = connection.prepareStatement("INSERT INTO password_reset_token " +
+                     "(token, utilisateur_id, date_expiration) VALUES (?, ?, ?)");
+             PreparedStatement history = connection.prepareStatement("INSERT INTO utilisateur_password_history " +
+                     "(utilisateur_id, password, " + historyDateColumn(connection) + ") VALUES (?, ?, ?)")) {
+            long[] roleIds = roleIds(connection);
+            for (int i = 0; i < count; i++) {
+                long id = firstId + i;
+                String suffix = String.format("%07d", id);
+                int status = random.nextInt(100);
+                boolean firstLogin = random.nextInt(100) < 2;
+                LocalDateTime created = REFERENCE_DATE.minusMinutes(random.nextLong(3 * 365 * 24 * 60L));
+                LocalDateTime passwordChanged = REFERENCE_DATE.minusMinutes(random.nextLong(2 * 365 * 24 * 60L));
+
+                users.setLong(1, id);
+                users.setString(2, "Nom" + suffix);
+                users.setString(3, "Prenom" + suffix);
+                users.setString(4, "User" + suffix + "@Adcsa.cm");
+                users.setString(5, "user" + suffix);
+                users.setString(6, PASSWORD_HASH);
+                users.setString(7, status < 95 ? "ACTIF" : status < 99 ? "INACTIF" : "BLOQUE");
+                users.setTimestamp(8, Timestamp.valueOf(created));
+                users.setBoolean(9, firstLogin);
+                users.setTimestamp(10, firstLogin ? null : Timestamp.valueOf(passwordChanged));
+                users.setTimestamp(11, firstLogin
+                        ? Timestamp.valueOf(REFERENCE_DATE.plusDays(7).minusMinutes(random.nextLong(14 * 24 * 60L)))
+                        : null);
+                users.setBoolean(12, status >= 99);
+                users.addBatch();
+
+                // Rôle le plus rare (ADMIN) sur 0,1 % des comptes, les autres répartis
+                int rolePick = random.nextInt(1000);
+                roles.setLong(1, id);
+                roles.setLong(2, rolePick == 0 ? roleIds[0] : roleIds[1 + rolePick % (roleIds.length - 1)]);
+                roles.addBatch();
+
+                if (random.nextInt(100) == 0) {
+                    tokens.setString(1, "reset-" + seed + "-" + id);
+                    tokens.setLong(2, id);
+                    tokens.setTimestamp(3, Timestamp.valueOf(REFERENCE_DATE.plusHours(random.nextInt(-48, 24))));
+                    tokens.addBatch();
+                }
+                if (random.nextInt(10) == 0) {
+                    for (int h = 1; h <= 3; h++) {
+                        history.setLong(1, id);
+                        history.setString(2, PASSWORD_HASH);
+                        history.setTimestamp(3, Timestamp.valueOf(passwordChanged.minusDays(90L * h)));
+                        history.addBatch();
+                    }
+                }
+
+                if ((i + 1) % BATCH_SIZE == 0 || i == count - 1) {
+                    users.executeBatch();
+                    roles.executeBatch();
+                    tokens.executeBatch();
+                    history.executeBatch();
+                    connection.commit();
+                }
+            }
+            restartIdentity(connection, firstId + count);
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        return count;
+    }
+
+    private static long nextId(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM \"utilisateur\"")) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    // date_creation jusqu'à V9, changed_at ensuite
+    static String historyDateColumn(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT * FROM utilisateur_password_history WHERE 1 = 0")) {
+            for (int i = 1; i <= resultSet.getMetaData().getColumnCount(); i++) {
+                if ("changed_at".equalsIgnoreCase(resultSet.getMetaData().getColumnName(i))) {
+                    return "changed_at";
+                }
+            }
+            return "date_creation";
+        }
+    }
+
+    private static long[] roleIds(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT id FROM role ORDER BY id")) {
+            List<Long> ids = new ArrayList<>();
+            while (resultSet.next()) {
+                ids.add(resultSet.getLong(1));
+            }
+            if (ids.size() < 2) {
+                throw new IllegalStateException("Les rôles initiaux (V2) sont requis");
+            }
+            return ids.stream().mapToLong(Long::longValue).toArray();
+        }
+    }
+
+    // Identifiants fournis explicitement : la colonne identité doit reprendre après le dernier
+    private static void restartIdentity(Connection connection, long next) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE \"utilisateur\" ALTER COLUMN id RESTART WITH " + next);
+        }
+        connection.commit();
+    }
+}
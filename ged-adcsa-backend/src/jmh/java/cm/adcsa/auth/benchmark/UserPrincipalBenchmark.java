@@ -0,0 +1,44 @@
+package cm.adcsa.auth.benchmark;
+
+import cm.adcsa.auth.entity.Utilisateur;
+import cm.adcsa.auth.security.UserPrincipal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construction du principal à partir d'un utilisateur portant N rôles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserPrincipalBenchmark {
+
+    @Param({"1", "5", "20", "100"})
+    public int roleCount;
+
+    private Utilisateur utilisateur;
+
+    @Setup
+    public void setUp() {
+        utilisateur = BenchmarkFixtures.utilisateur(roleCount);
+    }
+
+    @Benchmark
+    public UserPrincipal create() {
+        return UserPrincipal.create(utilisateur);
+    }
+}
@@ -0,0 +1,239 @@
+package cm.adcsa.auth.benchmark;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.jdbc.DatabaseDriver;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requêtes de recherche et des tâches d'expiration sur une table de N utilisateurs
+ * générée par {@link UserDataGenerator}, avant (schéma en version 9) et après les index
+ * secondaires (dernière version). Le plan d'exécution de chaque requête est affiché au
+ * démarrage. H2 en mémoire par défaut ; pour PostgreSQL (une base par version de schéma,
+ * les données déjà générées sont réutilisées) :
+ *
+ * <pre>
+ * mvn -Pjmh verify -DskipTests -Djmh.benchmarks="UserQueryBenchmark -p schemaVersion=latest \
+ *     -p url=jdbc:postgresql://localhost:5432/bench -p user=postgres -p password=postgres"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class UserQueryBenchmark {
+
+    @Param({"1000000"})
+    public int userCount;
+
+    @Param({"9", "latest"})
+    public String schemaVersion;
+
+    @Param({"jdbc:h2:mem:users;DB_CLOSE_DELAY=-1"})
+    public String url;
+
+    @Param({"sa"})
+    public String user;
+
+    @Param({""})
+    public String password;
+
+    private Connection connection;
+    private final Map<String, PreparedStatement> statements = new LinkedHashMap<>();
+    private long firstUserId;
+    private long adminRoleId;
+    private int cursor;
+    private int variant;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        flyway().target("9").load().migrate();
+
+        connection = DriverManager.getConnection(url, user, password);
+        int existing = queryForInt("SELECT COUNT(*) FROM \"utilisateur\" WHERE username LIKE 'user%'");
+        if (existing < userCount) {
+            long start = System.nanoTime();
+            new UserDataGenerator(UserDataGenerator.DEFAULT_SEED).generate(connection, userCount - existing);
+            System.out.printf("%n%d utilisateurs générés en %d ms%n", userCount - existing, elapsedMillis(start));
+        }
+        if (!"9".equals(schemaVersion)) {
+            long start = System.nanoTime();
+            flyway().target(schemaVersion).load().migrate();
+            System.out.printf("Migration vers %s en %d ms%n", schemaVersion, elapsedMillis(start));
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE");
+        }
+        firstUserId = queryForInt("SELECT MIN(id) FROM \"utilisateur\" WHERE username LIKE 'user%'");
+        adminRoleId = queryForInt("SELECT id FROM role WHERE nom = 'ADMIN'");
+
+        prepare("statut", "SELECT id FROM \"utilisateur\" WHERE statut = ? AND id > ?").setString(1, "BLOQUE");
+        prepare("passwordChangedBefore", "SELECT id FROM \"utilisateur\" WHERE password_changed_at < ?");
+        prepare("expiredFirstLogins", "SELECT id FROM \"utilisateur\" WHERE first_login_expires_at < ?");
+        prepare("emailIgnoringCase", "SELECT id FROM \"utilisateur\" WHERE LOWER(email) = LOWER(?)");
+        prepare("usersOfRole", "SELECT utilisateur_id FROM utilisateur_role WHERE role_id = ? AND utilisateur_id > ?")
+                .setLong(1, adminRoleId);
+        prepare("resetTokens", "SELECT id FROM password_reset_token WHERE utilisateur_id = ? AND date_expiration > ?");
+        prepare("passwordHistory", "SELECT password FROM utilisateur_password_history WHERE utilisateur_id = ? " +
+                "ORDER BY " + UserDataGenerator.historyDateColumn(connection) + " DESC");
+        printPlans();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public int findByStatut() throws SQLException {
+        PreparedStatement statement = statements.get("statut");
+        statement.setLong(2, -nextVariant());
+        return count(statement);
+    }
+
+    @Benchmark
+    public int findByPasswordChangedAtBefore() throws SQLException {
+        PreparedStatement statement = statements.get("passwordChangedBefore");
+        statement.setTimestamp(1, Timestamp.valueOf(UserDataGenerator.REFERENCE_DATE.minusDays(723)
+                .plusSeconds(nextVariant())));
+        return count(statement);
+    }
+
+    @Benchmark
+    public int findExpiredFirstLogins() throws SQLException {
+        PreparedStatement statement = statements.get("expiredFirstLogins");
+        statement.setTimestamp(1, Timestamp.valueOf(UserDataGenerator.REFERENCE_DATE.plusSeconds(nextVariant())));
+        return count(statement);
+    }
+
+    @Benchmark
+    public int emailIgnoringCase() throws SQLException {
+        PreparedStatement statement = statements.get("emailIgnoringCase");
+        statement.setString(1, String.format("user%07d@adcsa.cm", nextUserId()));
+        return count(statement);
+    }
+
+    @Benchmark
+    public int usersOfRole() throws SQLException {
+        PreparedStatement statement = statements.get("usersOfRole");
+        statement.setLong(2, -nextVariant());
+        return count(statement);
+    }
+
+    @Benchmark
+    public int resetTokensOfUser() throws SQLException {
+        PreparedStatement statement = statements.get("resetTokens");
+        statement.setLong(1, nextUserId());
+        statement.setTimestamp(2, Timestamp.valueOf(UserDataGenerator.REFERENCE_DATE));
+        return count(statement);
+    }
+
+    @Benchmark
+    public int passwordHistoryOfUser() throws SQLException {
+        PreparedStatement statement = statements.get("passwordHistory");
+        statement.setLong(1, nextUserId());
+        return count(statement);
+    }
+
+    // Parcours déterministe de tous les utilisateurs, sans localité d'une clé à la suivante
+    private long nextUserId() {
+        cursor = (int) ((cursor + 7_919L) % userCount);
+        return firstUserId + cursor;
+    }
+
+    /**
+     * Valeur changeant à chaque appel sans modifier le résultat (secondes ajoutées à une
+     * date arrondie à la minute, borne inférieure négative sur un identifiant) : H2
+     * réutilise sinon le résultat d'une requête préparée rejouée avec les mêmes paramètres.
+     */
+    private int nextVariant() {
+        variant = variant % 59 + 1;
+        return variant;
+    }
+
+    private FluentConfiguration flyway() {
+        return Flyway.configure()
+                .dataSource(url, user, password)
+                .locations("classpath:db/migration", "classpath:db/vendor/" + DatabaseDriver.fromJdbcUrl(url).getId());
+    }
+
+    private PreparedStatement prepare(String name, String sql) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql);
+        statements.put(name, statement);
+        return statement;
+    }
+
+    private static int count(PreparedStatement statement) throws SQLException {
+        int rows = 0;
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    private void printPlans() throws SQLException {
+        System.out.printf("%nPlans d'exécution (schéma %s, %d utilisateurs)%n", schemaVersion, userCount);
+        String[][] samples = {
+                {"statut", "SELECT id FROM \"utilisateur\" WHERE statut = 'BLOQUE' AND id > -1"},
+                {"passwordChangedBefore", "SELECT id FROM \"utilisateur\" WHERE password_changed_at < TIMESTAMP '2022-06-09 00:00:00'"},
+                {"expiredFirstLogins", "SELECT id FROM \"utilisateur\" WHERE first_login_expires_at < TIMESTAMP '2024-06-01 00:00:00'"},
+                {"emailIgnoringCase", "SELECT id FROM \"utilisateur\" WHERE LOWER(email) = 'user0000002@adcsa.cm'"},
+                {"usersOfRole", "SELECT utilisateur_id FROM utilisateur_role WHERE role_id = " + adminRoleId
+                        + " AND utilisateur_id > -1"},
+                {"resetTokens", "SELECT id FROM password_reset_token WHERE utilisateur_id = " + firstUserId
+                        + " AND date_expiration > TIMESTAMP '2024-06-01 00:00:00'"},
+                {"passwordHistory", "SELECT password FROM utilisateur_password_history WHERE utilisateur_id = "
+                        + firstUserId + " ORDER BY " + UserDataGenerator.historyDateColumn(connection) + " DESC"}
+        };
+        try (Statement statement = connection.createStatement()) {
+            for (String[] sample : samples) {
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet resultSet = statement.executeQuery("EXPLAIN " + sample[1])) {
+                    while (resultSet.next()) {
+                        plan.append(resultSet.getString(1).replaceAll("\\s+", " ").trim()).append(' ');
+                    }
+                }
+                System.out.printf("  %-22s %s%n", sample[0], plan.toString().trim());
+            }
+        }
+    }
+
+    private int queryForInt(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        }
+    }
+
+    private static long elapsedMillis(long start) {
+        return (System.nanoTime() - start) / 1_000_000L;
+    }
+}
@@ -0,0 +1,83 @@
+package cm.adcsa.auth.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enveloppe du pool qui mesure, pour chaque endpoint, combien de temps une connexion
+ * reste empruntée (de getConnection() à close()). Métrique : db.connection.hold{uri,method}.
+ */
+public class ConnectionHoldTimeDataSource extends DelegatingDataSource {
+
+    private static final String NO_REQUEST = "none";
+    private static final String UNMAPPED = "unmapped";
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public ConnectionHoldTimeDataSource(DataSource targetDataSource, ObjectProvider<MeterRegistry> meterRegistry) {
+        super(targetDataSource);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return track(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return track(super.getConnection(username, password));
+    }
+
+    private Connection track(Connection connection) {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) {
+            return connection;
+        }
+        long acquiredAt = System.nanoTime();
+        String[] endpoint = currentEndpoint();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName())) {
+                        Timer.builder("db.connection.hold")
+                                .description("Durée d'emprunt d'une connexion JDBC")
+                                .tag("uri", endpoint[0])
+                                .tag("method", endpoint[1])
+                                .register(registry)
+                                .record(System.nanoTime() - acquiredAt, TimeUnit.NANOSECONDS);
+                    } else if ("unwrap".equals(method.getName()) && ((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+
+    // Le motif de mapping (/api/users/{id}) plutôt que l'URI brute, pour borner la cardinalité
+    private static String[] currentEndpoint() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return new String[]{NO_REQUEST, NO_REQUEST};
+        }
+        HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return new String[]{pattern != null ? pattern.toString() : UNMAPPED, request.getMethod()};
+    }
+}
@@ -0,0 +1,51 @@
+package cm.adcsa.auth.config;
+
+import cm.adcsa.auth.security.ClusterCoordinator;
+import cm.adcsa.auth.security.InMemoryClusterCoordinator;
+import cm.adcsa.auth.security.RedisClusterCoordinator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Choix du support de coordination : en mémoire pour une instance unique (par défaut),
+ * Redis dès que plusieurs instances partagent la charge (app.coordination.type=redis).
+ */
+@Configuration
+public class CoordinationConfig {
+
+    @Configuration
+    @ConditionalOnProperty(name = "app.coordination.type", havingValue = "memory", matchIfMissing = true)
+    static class InMemoryCoordination {
+
+        @Bean
+        public InMemoryClusterCoordinator clusterCoordinator(
+                @Value("${app.coordination.memory.max-keys:100000}") int maxKeys,
+                @Value("${app.coordination.memory.segments:16}") int segments) {
+            return new InMemoryClusterCoordinator(maxKeys, segments);
+        }
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = "app.coordination.type", havingValue = "redis")
+    static class RedisCoordination {
+
+        @Bean
+        public RedisMessageListenerContainer coordinationListenerContainer(RedisConnectionFactory connectionFactory) {
+            RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+            container.setConnectionFactory(connectionFactory);
+            return container;
+        }
+
+        @Bean
+        public ClusterCoordinator clusterCoordinator(StringRedisTemplate redisTemplate,
+                                                     RedisMessageListenerContainer coordinationListenerContainer,
+                                                     @Value("${app.coordination.redis.prefix:ged-auth:}") String prefix) {
+            return new RedisClusterCoordinator(redisTemplate, coordinationListenerContainer, prefix);
+        }
+    }
+}
@@ -1,8 +1,147 @@
 package cm.adcsa.auth.config;
 
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Arrays;
 
 @Configuration
 public class PersistenceConfig {
     // Configuration personnalisée possible ici si besoin, mais sans bean entityManagerFactory
-} 
\ No newline at end of file
+
+    // Transactions programmatiques courtes, pour garder le hachage des mots de passe hors transaction
+    @Bean
+    public TransactionTemplate transactionTemplate(PlatformTransactionManager transactionManager) {
+        return new TransactionTemplate(transactionManager);
+    }
+
+    @Bean
+    public TransactionTemplate readOnlyTransactionTemplate(PlatformTransactionManager transactionManager) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+
+    // Budget de requêtes par cas d'usage : fail (dev, échec à la requête en trop), log (prod) ou off
+    @Bean
+    public StatementBudgetGuard statementBudgetGuard(
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${app.persistence.statement-budget.mode:log}") StatementBudgetGuard.Mode mode) {
+        return new StatementBudgetGuard(mode, meterRegistry);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer statementBudgetInspector(StatementBudgetGuard statementBudgetGuard) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, statementBudgetGuard);
+    }
+
+    // Mesure du temps de rétention des connexions JDBC par endpoint
+    @Bean
+    public static BeanPostProcessor connectionHoldTimeBeanPostProcessor(
+            ObjectProvider<MeterRegistry> meterRegistry,
+            @Value("${app.datasource.hold-time-metrics.enabled:true}") boolean enabled) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // Les pools sont mesurés, pas l'aiguillage qui les enveloppe
+                if (enabled && bean instanceof DataSource && !(bean instanceof ConnectionHoldTimeDataSource)
+                        && !(bean instanceof ReadWriteRoutingDataSource)
+                        && !(bean instanceof LazyConnectionDataSourceProxy)) {
+                    return new ConnectionHoldTimeDataSource((DataSource) bean, meterRegistry);
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Lectures sur réplica (app.datasource.replica.enabled=true) : deux pools, le primaire
+     * configuré par spring.datasource.* et le réplica par app.datasource.replica.*, derrière
+     * une source de données unique qui aiguille les transactions en lecture seule.
+     */
+    @Configuration
+    @ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+    static class ReplicaRouting {
+
+        @Bean
+        @ConfigurationProperties("spring.datasource.hikari")
+        public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+            HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .build();
+            dataSource.setPoolName("primary");
+            return dataSource;
+        }
+
+        @Bean
+        public HikariDataSource replicaDataSource(
+                @Value("${app.datasource.replica.url}") String url,
+                @Value("${app.datasource.replica.username:}") String username,
+                @Value("${app.datasource.replica.password:}") String password,
+                @Value("${app.datasource.replica.driver-class-name:}") String driverClassName,
+                @Value("${app.datasource.replica.maximum-pool-size:10}") int maximumPoolSize,
+                @Value("${app.datasource.replica.connection-timeout:1000}") long connectionTimeout,
+                @Value("${app.datasource.replica.migrate:false}") boolean migrate,
+                @Value("${spring.flyway.locations:classpath:db/migration}") String[] locations) {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("replica");
+            dataSource.setJdbcUrl(url);
+            dataSource.setUsername(username);
+            dataSource.setPassword(password);
+            if (!driverClassName.isEmpty()) {
+                dataSource.setDriverClassName(driverClassName);
+            }
+            dataSource.setMaximumPoolSize(maximumPoolSize);
+            // Un réplica indisponible ne bloque ni le démarrage ni les lectures : repli sur le primaire
+            dataSource.setConnectionTimeout(connectionTimeout);
+            dataSource.setInitializationFailTimeout(-1);
+            dataSource.setReadOnly(true);
+            if (migrate) {
+                // Développement uniquement : base distincte qui tient lieu de réplica
+                String vendor = DatabaseDriver.fromJdbcUrl(url).getId();
+                Flyway.configure()
+                        .dataSource(dataSource)
+                        .locations(Arrays.stream(locations).map(location -> location.replace("{vendor}", vendor))
+                                .toArray(String[]::new))
+                        .load()
+                        .migrate();
+            }
+            return dataSource;
+        }
+
+        @Bean
+        public ReadWriteRoutingDataSource routingDataSource(
+                @Qualifier("primaryDataSource") DataSource primaryDataSource,
+                @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                @Value("${app.datasource.replica.lag-query:SELECT 0}") String lagQuery,
+                @Value("${app.datasource.replica.max-lag:PT2S}") Duration maxLag) {
+            return new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource, lagQuery, maxLag);
+        }
+
+        // Connexion obtenue à la première requête, une fois la transaction (et son mode) ouverte
+        @Bean
+        @Primary
+        public LazyConnectionDataSourceProxy dataSource(ReadWriteRoutingDataSource routingDataSource) {
+            return new LazyConnectionDataSourceProxy(routingDataSource);
+        }
+    }
+}
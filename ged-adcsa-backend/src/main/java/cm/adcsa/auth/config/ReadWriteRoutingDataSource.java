@@ -0,0 +1,153 @@
+package cm.adcsa.auth.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aiguillage des connexions : les transactions en lecture seule vont sur le réplica,
+ * tout le reste (écritures, travail hors transaction, migrations) sur le primaire.
+ * Le retard du réplica est mesuré périodiquement ; au-delà du retard toléré, ou si le
+ * réplica ne répond pas, les lectures repassent sur le primaire jusqu'à la mesure
+ * suivante. Doit être enveloppé dans un {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} :
+ * la connexion n'est alors obtenue qu'à la première requête, une fois le caractère
+ * lecture seule de la transaction connu.
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements MeterBinder {
+
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica";
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final String lagQuery;
+    private final Duration maxLag;
+
+    private volatile boolean replicaAvailable;
+    private volatile double replicaLagSeconds = Double.NaN;
+
+    private final LongAdder primaryConnections = new LongAdder();
+    private final LongAdder replicaConnections = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, String lagQuery, Duration maxLag) {
+        this.primary = primary;
+        this.replica = replica;
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        checkReplicaLag();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        if (!replicaAvailable) {
+            fallbacks.increment();
+            return PRIMARY;
+        }
+        return REPLICA;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        DataSource target = determineTargetDataSource();
+        if (target == replica) {
+            try {
+                Connection connection = replica.getConnection();
+                replicaConnections.increment();
+                return connection;
+            } catch (SQLException e) {
+                // Réplica injoignable : lecture servie par le primaire, sans attendre la prochaine mesure
+                markUnavailable("connexion impossible: " + e.getMessage());
+                fallbacks.increment();
+            }
+        }
+        Connection connection = primary.getConnection();
+        primaryConnections.increment();
+        return connection;
+    }
+
+    /**
+     * Mesure le retard du réplica. La requête configurée renvoie le retard en secondes ;
+     * une valeur nulle (retard inconnu) rend le réplica indisponible.
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval:5000}",
+            initialDelayString = "${app.datasource.replica.lag-check-interval:5000}")
+    public void checkReplicaLag() {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            Object value = resultSet.next() ? resultSet.getObject(1) : null;
+            if (value == null) {
+                markUnavailable("retard inconnu");
+                return;
+            }
+            replicaLagSeconds = ((Number) value).doubleValue();
+            if (replicaLagSeconds * 1000 > maxLag.toMillis()) {
+                markUnavailable("retard de " + replicaLagSeconds + " s");
+            } else if (!replicaAvailable) {
+                replicaAvailable = true;
+                log.info("Réplica disponible (retard: {} s), lectures seules aiguillées vers le réplica",
+                        replicaLagSeconds);
+            }
+        } catch (SQLException | ClassCastException e) {
+            replicaLagSeconds = Double.NaN;
+            markUnavailable("mesure du retard impossible: " + e.getMessage());
+        }
+    }
+
+    private void markUnavailable(String reason) {
+        if (replicaAvailable) {
+            replicaAvailable = false;
+            log.warn("Réplica écarté ({}), lectures seules aiguillées vers le primaire", reason);
+        } else {
+            log.debug("Réplica toujours écarté: {}", reason);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("db.routing.connections", primaryConnections, LongAdder::sum)
+                .description("Connexions JDBC obtenues, par pool")
+                .tag("pool", PRIMARY)
+                .register(registry);
+        FunctionCounter.builder("db.routing.connections", replicaConnections, LongAdder::sum)
+                .description("Connexions JDBC obtenues, par pool")
+                .tag("pool", REPLICA)
+                .register(registry);
+        FunctionCounter.builder("db.routing.fallbacks", fallbacks, LongAdder::sum)
+                .description("Lectures seules servies par le primaire faute de réplica à jour")
+                .register(registry);
+        Gauge.builder("db.replica.lag", this, dataSource -> dataSource.replicaLagSeconds)
+                .description("Retard du réplica mesuré, en secondes")
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("db.replica.available", this, dataSource -> dataSource.replicaAvailable ? 1 : 0)
+                .register(registry);
+    }
+}
@@ -1,19 +1,26 @@
 package cm.adcsa.auth.config;
 
+import cm.adcsa.auth.repository.UtilisateurRepository;
 import cm.adcsa.auth.security.JwtAuthenticationEntryPoint;
 import cm.adcsa.auth.security.JwtAuthenticationFilter;
+import cm.adcsa.auth.security.BoundedPasswordEncoder;
+import cm.adcsa.auth.security.PasswordEncoderFactory;
+import cm.adcsa.auth.security.PermissionMaskEvaluator;
+import cm.adcsa.auth.security.PasswordHashingExecutor;
+import cm.adcsa.auth.security.UtilisateurAuthenticationProvider;
 import cm.adcsa.auth.service.CustomUserDetailsService;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.expression.method.MethodSecurityExpressionHandler;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
-import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -23,6 +30,7 @@ import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.security.servlet.PathRequest;
 
 import java.util.Arrays;
@@ -40,18 +48,35 @@ public class SecurityConfig {
     @Autowired
     @Lazy
     private CustomUserDetailsService userDetailsService;
+    @Autowired
+    private UtilisateurRepository utilisateurRepository;
+    @Autowired
+    private PasswordEncoderFactory passwordEncoderFactory;
+    @Autowired
+    private PasswordHashingExecutor passwordHashingExecutor;
+    @Value("${app.security.account-lock-duration}")
+    private long accountLockDuration;
 
     @Bean
     public AuthenticationProvider authenticationProvider() {
-        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
-        authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
-        return authProvider;
+        // Un seul chargement de l'utilisateur (avec ses rôles), transmis à AuthService ;
+        // les mots de passe stockés avec des paramètres obsolètes sont ré-encodés à la connexion
+        return new UtilisateurAuthenticationProvider(utilisateurRepository, passwordEncoder(), userDetailsService,
+                accountLockDuration);
+    }
+
+    // hasPermission(...) évalué par test de bit sur le masque porté par le principal
+    @Bean
+    static MethodSecurityExpressionHandler methodSecurityExpressionHandler() {
+        DefaultMethodSecurityExpressionHandler handler = new DefaultMethodSecurityExpressionHandler();
+        handler.setPermissionEvaluator(new PermissionMaskEvaluator());
+        return handler;
     }
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
+        // Hachage hors des threads Tomcat, sur un pool borné
+        return new BoundedPasswordEncoder(passwordEncoderFactory.create(), passwordHashingExecutor);
     }
 
     @Bean
@@ -76,8 +101,13 @@ public class SecurityConfig {
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
             )
             .authorizeHttpRequests(auth -> auth
+                // Requête déjà autorisée à son premier passage : sans session, le filtre JWT ne
+                // rejoue pas l'authentification pour la fin d'une réponse en flux (dispatch ASYNC)
+                .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                 .requestMatchers(PathRequest.toH2Console()).permitAll()
                 .requestMatchers("/auth/**").permitAll()
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 .anyRequest().authenticated()
             )
             .authenticationProvider(authenticationProvider())
@@ -0,0 +1,21 @@
+package cm.adcsa.auth.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Nombre maximal de requêtes SQL émises par Hibernate pour un cas d'usage. Un
+ * dépassement signale un chargement implicite (collection paresseuse, N+1) qui a
+ * échappé au plan de chargement explicite. Voir {@link StatementBudgetGuard}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface StatementBudget {
+
+    /** Nom du cas d'usage, repris dans les logs et l'étiquette use_case des métriques. */
+    String value();
+
+    int max();
+}
@@ -0,0 +1,103 @@
+package cm.adcsa.auth.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Garde-fou sur le nombre de requêtes par cas d'usage ({@link StatementBudget}).
+ * Hibernate soumet chaque requête préparée à l'inspecteur, sur le thread appelant :
+ * le compteur est donc propre à l'appel en cours, même sous charge concurrente.
+ * Seules les requêtes émises par Hibernate sont comptées (pas celles de JdbcTemplate).
+ * <p>
+ * Mode fail : la requête qui dépasse le budget lève une exception, la transaction est
+ * annulée et la pile désigne le chargement fautif. Mode log : avertissement à la fin
+ * de l'appel. Dans les deux cas, métriques db.statements{use_case} et
+ * db.statement.budget.exceeded{use_case}.
+ */
+@Slf4j
+@Aspect
+public class StatementBudgetGuard implements StatementInspector {
+
+    public enum Mode { FAIL, LOG, OFF }
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private final Mode mode;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public StatementBudgetGuard(Mode mode, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.mode = mode;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("@annotation(budget)")
+    public Object measure(ProceedingJoinPoint joinPoint, StatementBudget budget) throws Throwable {
+        if (mode == Mode.OFF) {
+            return joinPoint.proceed();
+        }
+        Scope scope = new Scope(budget, CURRENT.get());
+        CURRENT.set(scope);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            CURRENT.set(scope.parent);
+            record(scope);
+        }
+    }
+
+    @Override
+    public String inspect(String sql) {
+        for (Scope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            if (++scope.count > scope.budget.max() && mode == Mode.FAIL && !scope.failed) {
+                scope.failed = true;
+                throw new IllegalStateException("Budget de requêtes dépassé pour " + scope.budget.value()
+                        + " (" + scope.budget.max() + " au plus) : " + sql);
+            }
+        }
+        return sql;
+    }
+
+    private void record(Scope scope) {
+        boolean exceeded = scope.count > scope.budget.max();
+        if (exceeded && mode == Mode.LOG) {
+            log.warn("Budget de requêtes dépassé pour {} : {} requêtes pour {} au plus",
+                    scope.budget.value(), scope.count, scope.budget.max());
+        }
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) {
+            return;
+        }
+        DistributionSummary.builder("db.statements")
+                .description("Requêtes SQL émises par Hibernate, par cas d'usage")
+                .tag("use_case", scope.budget.value())
+                .register(registry)
+                .record(scope.count);
+        if (exceeded) {
+            Counter.builder("db.statement.budget.exceeded")
+                    .description("Appels ayant dépassé leur budget de requêtes")
+                    .tag("use_case", scope.budget.value())
+                    .register(registry)
+                    .increment();
+        }
+    }
+
+    // Les requêtes d'un cas d'usage imbriqué comptent aussi pour l'appelant
+    private static final class Scope {
+        private final StatementBudget budget;
+        private final Scope parent;
+        private int count;
+        private boolean failed;
+
+        private Scope(StatementBudget budget, Scope parent) {
+            this.budget = budget;
+            this.parent = parent;
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package cm.adcsa.auth.controller;
 
 import cm.adcsa.auth.dto.*;
+import cm.adcsa.auth.exception.ServiceOverloadedException;
+import cm.adcsa.auth.exception.TooManyLoginAttemptsException;
 import cm.adcsa.auth.service.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -20,16 +23,19 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest loginRequest, HttpServletRequest httpRequest) {
         log.debug("Réception d'une requête de connexion pour l'utilisateur: {}", loginRequest.getUsername());
         log.debug("Données de la requête - username: {}, password: {}", 
             loginRequest.getUsername(), 
             loginRequest.getPassword() != null ? "présent" : "absent");
         
         try {
-            LoginResponse response = authService.login(loginRequest);
+            // Adresse du client et non du proxy : reprise de X-Forwarded-For (server.forward-headers-strategy)
+            LoginResponse response = authService.login(loginRequest, httpRequest.getRemoteAddr());
             log.debug("Connexion réussie pour l'utilisateur: {}", loginRequest.getUsername());
             return ResponseEntity.ok(response);
+        } catch (ServiceOverloadedException | TooManyLoginAttemptsException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Erreur lors de la connexion pour l'utilisateur: {}. Erreur: {}", 
                 loginRequest.getUsername(), e.getMessage());
@@ -52,6 +58,16 @@ public class AuthController {
         }
     }
 
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(value = "Authorization", required = false) String authorization,
+                                    @RequestBody(required = false) LogoutRequest request) {
+        log.debug("Réception d'une requête de déconnexion");
+        String accessToken = authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring(7) : null;
+        authService.logout(accessToken, request != null ? request.getRefreshToken() : null);
+        return ResponseEntity.ok(new MessageResponse("Déconnexion réussie"));
+    }
+
     @PostMapping("/request-password-reset")
     public ResponseEntity<?> requestPasswordReset(@Valid @RequestBody PasswordResetRequest request) {
         log.debug("Réception d'une requête de réinitialisation de mot de passe pour l'email: {}", request.getEmail());
@@ -73,6 +89,8 @@ public class AuthController {
             authService.resetPassword(request.getToken(), request.getNewPassword());
             log.debug("Mot de passe réinitialisé avec succès");
             return ResponseEntity.ok(new MessageResponse("Mot de passe réinitialisé avec succès"));
+        } catch (ServiceOverloadedException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Erreur lors de la réinitialisation du mot de passe. Erreur: {}", e.getMessage());
             return ResponseEntity.badRequest()
@@ -0,0 +1,73 @@
+package cm.adcsa.auth.controller;
+
+import cm.adcsa.auth.dto.GroupCreateRequest;
+import cm.adcsa.auth.dto.GroupMembersRequest;
+import cm.adcsa.auth.dto.GroupResponse;
+import cm.adcsa.auth.dto.MessageResponse;
+import cm.adcsa.auth.service.GroupService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/groups")
+@RequiredArgsConstructor
+public class GroupController {
+
+    private final GroupService groupService;
+
+    @PostMapping
+    @PreAuthorize("hasPermission(null, 'ROLE_MANAGE')")
+    public ResponseEntity<GroupResponse> createGroup(@Valid @RequestBody GroupCreateRequest request) {
+        return ResponseEntity.ok(groupService.createGroup(request));
+    }
+
+    @GetMapping
+    @PreAuthorize("hasPermission(null, 'USER_READ')")
+    public ResponseEntity<List<GroupResponse>> getAllGroups() {
+        return ResponseEntity.ok(groupService.getAllGroups());
+    }
+
+    @PutMapping("/{id}/parent")
+    @PreAuthorize("hasPermission(null, 'ROLE_MANAGE')")
+    public ResponseEntity<GroupResponse> moveGroup(@PathVariable Long id, @RequestParam(required = false) Long parentId) {
+        return ResponseEntity.ok(groupService.moveGroup(id, parentId));
+    }
+
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasPermission(null, 'ROLE_MANAGE')")
+    public ResponseEntity<Void> deleteGroup(@PathVariable Long id) {
+        groupService.deleteGroup(id);
+        return ResponseEntity.ok().build();
+    }
+
+    @PostMapping("/{id}/roles/{roleId}")
+    @PreAuthorize("hasPermission(null, 'ROLE_MANAGE')")
+    public ResponseEntity<GroupResponse> grantRole(@PathVariable Long id, @PathVariable Long roleId) {
+        return ResponseEntity.ok(groupService.grantRole(id, roleId));
+    }
+
+    @DeleteMapping("/{id}/roles/{roleId}")
+    @PreAuthorize("hasPermission(null, 'ROLE_MANAGE')")
+    public ResponseEntity<GroupResponse> revokeRole(@PathVariable Long id, @PathVariable Long roleId) {
+        return ResponseEntity.ok(groupService.revokeRole(id, roleId));
+    }
+
+    @PostMapping("/{id}/members")
+    @PreAuthorize("hasPermission(null, 'ROLE_MANAGE')")
+    public ResponseEntity<MessageResponse> addMembers(@PathVariable Long id, @Valid @RequestBody GroupMembersRequest request) {
+        int added = groupService.addMembers(id, request.getUserIds());
+        return ResponseEntity.ok(new MessageResponse(added + " utilisateur(s) ajouté(s) au groupe"));
+    }
+
+    @DeleteMapping("/{id}/members")
+    @PreAuthorize("hasPermission(null, 'ROLE_MANAGE')")
+    public ResponseEntity<MessageResponse> removeMembers(@PathVariable Long id, @Valid @RequestBody GroupMembersRequest request) {
+        int removed = groupService.removeMembers(id, request.getUserIds());
+        return ResponseEntity.ok(new MessageResponse(removed + " utilisateur(s) retiré(s) du groupe"));
+    }
+}
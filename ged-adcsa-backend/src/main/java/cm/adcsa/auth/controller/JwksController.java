@@ -0,0 +1,33 @@
+package cm.adcsa.auth.controller;
+
+import cm.adcsa.auth.security.JwtKeyRing;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/auth/.well-known")
+@RequiredArgsConstructor
+public class JwksController {
+
+    private final JwtKeyRing keyRing;
+
+    @Value("${app.jwt.jwks.cache-max-age:PT15M}")
+    private Duration cacheMaxAge;
+
+    // Clés publiques permettant aux autres services GED de vérifier les tokens localement
+    @GetMapping("/jwks.json")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(cacheMaxAge).cachePublic())
+                .eTag(keyRing.jwksVersion())
+                .body(keyRing.jwks());
+    }
+}
@@ -1,16 +1,33 @@
 package cm.adcsa.auth.controller;
 
+import cm.adcsa.auth.dto.BulkRoleRequest;
+import cm.adcsa.auth.dto.BulkRoleResponse;
+import cm.adcsa.auth.dto.CursorPage;
 import cm.adcsa.auth.dto.UserCreateRequest;
+import cm.adcsa.auth.dto.UserImportReport;
+import cm.adcsa.auth.dto.UserImportRow;
 import cm.adcsa.auth.dto.UserResponse;
+import cm.adcsa.auth.dto.UserSearchCriteria;
 import cm.adcsa.auth.dto.RoleCreateRequest;
 import cm.adcsa.auth.dto.RoleResponse;
+import cm.adcsa.auth.enums.ExportFormat;
+import cm.adcsa.auth.enums.Permission;
+import cm.adcsa.auth.enums.StatutUtilisateur;
+import cm.adcsa.auth.exception.BusinessException;
+import cm.adcsa.auth.service.UserImportService;
 import cm.adcsa.auth.service.UserManagementService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.Reader;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/users")
@@ -18,58 +35,119 @@ import java.util.List;
 public class UserManagementController {
 
     private final UserManagementService userManagementService;
+    private final UserImportService userImportService;
 
     @PostMapping
-    @PreAuthorize("hasRole('ADMIN')")
+    @PreAuthorize("hasPermission(null, 'USER_WRITE')")
     public ResponseEntity<UserResponse> createUser(@RequestBody UserCreateRequest request) {
         return ResponseEntity.ok(userManagementService.createUser(request));
     }
 
     @GetMapping
-    @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<UserResponse>> getAllUsers() {
-        return ResponseEntity.ok(userManagementService.getAllUsers());
+    @PreAuthorize("hasPermission(null, 'USER_READ')")
+    public ResponseEntity<CursorPage<UserResponse>> searchUsers(UserSearchCriteria criteria) {
+        return ResponseEntity.ok(userManagementService.searchUsers(criteria));
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasPermission(null, 'USER_WRITE')")
+    public ResponseEntity<UserImportReport> importUsers(@RequestBody List<UserImportRow> rows) {
+        return ResponseEntity.ok(userImportService.importUsers(rows));
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    @PreAuthorize("hasPermission(null, 'USER_WRITE')")
+    public ResponseEntity<UserImportReport> importUsersCsv(Reader reader) {
+        return ResponseEntity.ok(userImportService.importCsv(reader));
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasPermission(null, 'USER_READ')")
+    public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(defaultValue = "csv") String format) {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.fromExtension(format);
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(e.getMessage());
+        }
+        StreamingResponseBody body = outputStream -> userManagementService.exportUsers(exportFormat, outputStream);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"utilisateurs." + exportFormat.getExtension() + "\"")
+                .body(body);
     }
 
     @GetMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN')")
+    @PreAuthorize("hasPermission(null, 'USER_READ')")
     public ResponseEntity<UserResponse> getUserById(@PathVariable Long id) {
         return ResponseEntity.ok(userManagementService.getUserById(id));
     }
 
     @PutMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN')")
+    @PreAuthorize("hasPermission(null, 'USER_WRITE')")
     public ResponseEntity<UserResponse> updateUser(@PathVariable Long id, @RequestBody UserCreateRequest request) {
         return ResponseEntity.ok(userManagementService.updateUser(id, request));
     }
 
+    @PutMapping("/{id}/statut")
+    @PreAuthorize("hasPermission(null, 'USER_WRITE')")
+    public ResponseEntity<UserResponse> updateUserStatus(@PathVariable Long id, @RequestParam StatutUtilisateur statut) {
+        return ResponseEntity.ok(userManagementService.updateUserStatus(id, statut));
+    }
+
     @DeleteMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN')")
+    @PreAuthorize("hasPermission(null, 'USER_WRITE')")
     public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
         userManagementService.deleteUser(id);
         return ResponseEntity.ok().build();
     }
 
     @PostMapping("/roles")
-    @PreAuthorize("hasRole('ADMIN')")
+    @PreAuthorize("hasPermission(null, 'ROLE_MANAGE')")
     public ResponseEntity<RoleResponse> createRole(@RequestBody RoleCreateRequest request) {
         return ResponseEntity.ok(userManagementService.createRole(request));
     }
 
     @GetMapping("/roles")
-    @PreAuthorize("hasRole('ADMIN')")
+    @PreAuthorize("hasPermission(null, 'USER_READ')")
     public ResponseEntity<List<RoleResponse>> getAllRoles() {
         return ResponseEntity.ok(userManagementService.getAllRoles());
     }
 
+    @GetMapping("/roles/{roleId}/permissions")
+    @PreAuthorize("hasPermission(null, 'ROLE_MANAGE')")
+    public ResponseEntity<Set<Permission>> getRolePermissions(@PathVariable Long roleId) {
+        return ResponseEntity.ok(userManagementService.getRolePermissions(roleId));
+    }
+
+    @PutMapping("/roles/{roleId}/permissions")
+    @PreAuthorize("hasPermission(null, 'ROLE_MANAGE')")
+    public ResponseEntity<Set<Permission>> updateRolePermissions(@PathVariable Long roleId,
+                                                                 @RequestBody Set<Permission> permissions) {
+        return ResponseEntity.ok(userManagementService.updateRolePermissions(roleId, permissions));
+    }
+
+    @PostMapping("/roles/bulk-assign")
+    @PreAuthorize("hasPermission(null, 'ROLE_MANAGE')")
+    public ResponseEntity<BulkRoleResponse> assignRoles(@Valid @RequestBody BulkRoleRequest request) {
+        return ResponseEntity.ok(userManagementService.assignRoles(request));
+    }
+
+    @PostMapping("/roles/bulk-revoke")
+    @PreAuthorize("hasPermission(null, 'ROLE_MANAGE')")
+    public ResponseEntity<BulkRoleResponse> revokeRoles(@Valid @RequestBody BulkRoleRequest request) {
+        return ResponseEntity.ok(userManagementService.revokeRoles(request));
+    }
+
     @PostMapping("/{userId}/roles/{roleId}")
-    @PreAuthorize("hasRole('ADMIN')")
+    @PreAuthorize("hasPermission(null, 'ROLE_MANAGE')")
     public ResponseEntity<UserResponse> assignRoleToUser(@PathVariable Long userId, @PathVariable Long roleId) {
         return ResponseEntity.ok(userManagementService.assignRoleToUser(userId, roleId));
     }
 
     @DeleteMapping("/{userId}/roles/{roleId}")
-    @PreAuthorize("hasRole('ADMIN')")
+    @PreAuthorize("hasPermission(null, 'ROLE_MANAGE')")
     public ResponseEntity<UserResponse> removeRoleFromUser(@PathVariable Long userId, @PathVariable Long roleId) {
         return ResponseEntity.ok(userManagementService.removeRoleFromUser(userId, roleId));
     }
@@ -0,0 +1,18 @@
+package cm.adcsa.auth.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkRoleRequest {
+    @NotEmpty(message = "Au moins un utilisateur est requis")
+    @Size(max = 1000, message = "Au plus 1000 utilisateurs par requête")
+    private List<Long> userIds;
+
+    @NotEmpty(message = "Au moins un rôle est requis")
+    @Size(max = 100, message = "Au plus 100 rôles par requête")
+    private List<Long> roleIds;
+}
@@ -0,0 +1,15 @@
+package cm.adcsa.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Résultat d'une attribution ou d'un retrait de rôles en masse : nombre d'associations
+ * créées ou supprimées, et nombre d'utilisateurs dont les droits ont changé.
+ */
+@Data
+@AllArgsConstructor
+public class BulkRoleResponse {
+    private int associationsModifiees;
+    private int utilisateursModifies;
+}
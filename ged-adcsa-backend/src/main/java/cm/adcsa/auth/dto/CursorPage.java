@@ -0,0 +1,18 @@
+package cm.adcsa.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Page obtenue par pagination par clé : {@code nextCursor} est à renvoyer tel quel
+ * pour obtenir la page suivante, il est absent sur la dernière page.
+ */
+@Data
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    private String nextCursor;
+    private boolean hasNext;
+}
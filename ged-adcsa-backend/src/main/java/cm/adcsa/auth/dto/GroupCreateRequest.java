@@ -0,0 +1,18 @@
+package cm.adcsa.auth.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class GroupCreateRequest {
+    @NotBlank(message = "Le nom du groupe est obligatoire")
+    @Size(max = 100, message = "Le nom du groupe ne doit pas dépasser 100 caractères")
+    private String nom;
+
+    @Size(max = 255, message = "La description ne doit pas dépasser 255 caractères")
+    private String description;
+
+    // Groupe parent ; absent pour un groupe racine (direction)
+    private Long parentId;
+}
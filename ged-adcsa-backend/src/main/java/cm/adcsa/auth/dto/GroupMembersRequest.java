@@ -0,0 +1,14 @@
+package cm.adcsa.auth.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class GroupMembersRequest {
+    @NotEmpty(message = "Au moins un utilisateur est requis")
+    @Size(max = 1000, message = "Au plus 1000 utilisateurs par requête")
+    private List<Long> userIds;
+}
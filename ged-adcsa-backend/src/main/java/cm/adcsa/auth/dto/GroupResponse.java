@@ -0,0 +1,15 @@
+package cm.adcsa.auth.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class GroupResponse {
+    private Long id;
+    private String nom;
+    private String description;
+    private Long parentId;
+    // Rôles attribués directement au groupe, hérités par ses sous-groupes
+    private List<String> roles;
+}
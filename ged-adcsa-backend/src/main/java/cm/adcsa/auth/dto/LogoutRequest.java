@@ -0,0 +1,8 @@
+package cm.adcsa.auth.dto;
+
+import lombok.Data;
+
+@Data
+public class LogoutRequest {
+    private String refreshToken;
+}
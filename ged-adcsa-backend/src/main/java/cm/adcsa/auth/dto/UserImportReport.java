@@ -0,0 +1,25 @@
+package cm.adcsa.auth.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Résultat d'un import en masse ; les lignes sont numérotées à partir de 1, hors en-tête.
+ */
+@Data
+public class UserImportReport {
+    private int total;
+    private int created;
+    private List<RowError> errors = new ArrayList<>();
+
+    @Data
+    @AllArgsConstructor
+    public static class RowError {
+        private int ligne;
+        private String username;
+        private String message;
+    }
+}
@@ -0,0 +1,17 @@
+package cm.adcsa.auth.dto;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ligne d'un import en masse : les champs de création d'un utilisateur et les noms
+ * des rôles à lui attribuer.
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class UserImportRow extends UserCreateRequest {
+    private List<String> roles = new ArrayList<>();
+}
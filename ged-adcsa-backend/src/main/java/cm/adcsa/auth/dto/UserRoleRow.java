@@ -0,0 +1,7 @@
+package cm.adcsa.auth.dto;
+
+/**
+ * Association utilisateur / rôle, projetée pour charger les rôles d'une page d'utilisateurs.
+ */
+public record UserRoleRow(Long utilisateurId, Long roleId, String nom, String description) {
+}
@@ -0,0 +1,19 @@
+package cm.adcsa.auth.dto;
+
+import cm.adcsa.auth.enums.StatutUtilisateur;
+import lombok.Data;
+
+/**
+ * Filtres, tri et position de la liste paginée des utilisateurs ({@code GET /api/users}).
+ */
+@Data
+public class UserSearchCriteria {
+    private StatutUtilisateur statut;
+    private String role;
+    private Boolean locked;
+    private Boolean firstLogin;
+    private String sort = "id";
+    private String direction = "asc";
+    private String cursor;
+    private Integer size;
+}
@@ -0,0 +1,22 @@
+package cm.adcsa.auth.dto;
+
+import cm.adcsa.auth.enums.StatutUtilisateur;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection des colonnes affichées dans la liste des utilisateurs (sans les rôles,
+ * chargés ensuite en une requête par page).
+ */
+public record UserSummary(Long id,
+                          String nom,
+                          String prenom,
+                          String email,
+                          String username,
+                          StatutUtilisateur statut,
+                          LocalDateTime derniereConnexion,
+                          LocalDateTime dateCreation,
+                          LocalDateTime dateModification,
+                          Boolean compteVerrouille,
+                          Boolean isFirstLogin) {
+}
@@ -0,0 +1,44 @@
+package cm.adcsa.auth.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Groupe organisationnel (direction, service, bureau). La hiérarchie complète est
+ * matérialisée dans la table {@code groupe_closure}, maintenue par GroupService ;
+ * {@code parentId} ne sert qu'à l'affichage.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "groupe")
+public class Groupe {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 100)
+    private String nom;
+
+    @Column(length = 255)
+    private String description;
+
+    @Column(name = "parent_id")
+    private Long parentId;
+
+    @Column(name = "date_creation", nullable = false, updatable = false)
+    private LocalDateTime dateCreation;
+
+    @PrePersist
+    protected void onCreate() {
+        dateCreation = LocalDateTime.now();
+    }
+}
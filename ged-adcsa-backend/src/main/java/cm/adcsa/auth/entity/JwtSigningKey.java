@@ -0,0 +1,56 @@
+package cm.adcsa.auth.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "jwt_signing_key")
+public class JwtSigningKey {
+
+    @Id
+    @Column(length = 64)
+    private String kid;
+
+    @Column(nullable = false, length = 20)
+    private String algorithm;
+
+    @Column(name = "public_key", nullable = false, length = 4096)
+    private String publicKey;
+
+    @Column(name = "private_key", nullable = false, length = 4096)
+    private String privateKey;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Date à partir de laquelle la clé signe : elle est publiée dans le JWKS avant
+    @Column(name = "activates_at", nullable = false)
+    private LocalDateTime activatesAt;
+
+    // Au-delà, plus aucun token signé par cette clé ne peut être encore valide
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // Clé remplacée par celle-ci ("" pour la première) : unique par algorithme
+    @Column(name = "predecessor_kid", length = 64)
+    private String predecessorKid;
+
+    @Override
+    public String toString() {
+        return "JwtSigningKey{" +
+                "kid='" + kid + '\'' +
+                ", algorithm='" + algorithm + '\'' +
+                ", activatesAt=" + activatesAt +
+                ", expiresAt=" + expiresAt +
+                '}';
+    }
+}
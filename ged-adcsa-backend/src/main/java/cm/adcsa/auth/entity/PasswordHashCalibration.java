@@ -0,0 +1,40 @@
+package cm.adcsa.auth.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "password_hash_calibration")
+public class PasswordHashCalibration {
+
+    @Id
+    @Column(length = 16)
+    private String algorithm;
+
+    @Column(name = "bcrypt_cost", nullable = false)
+    private Integer bcryptCost;
+
+    @Column(name = "argon2_memory_kib", nullable = false)
+    private Integer argon2MemoryKib;
+
+    @Column(name = "argon2_iterations", nullable = false)
+    private Integer argon2Iterations;
+
+    @Column(name = "argon2_parallelism", nullable = false)
+    private Integer argon2Parallelism;
+
+    @Column(name = "pbkdf2_iterations", nullable = false)
+    private Integer pbkdf2Iterations;
+
+    @Column(name = "calibrated_at", nullable = false)
+    private LocalDateTime calibratedAt;
+}
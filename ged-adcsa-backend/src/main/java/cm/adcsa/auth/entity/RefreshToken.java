@@ -0,0 +1,61 @@
+package cm.adcsa.auth.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "refresh_token")
+// Rafraîchissement : token et utilisateur en une seule requête, les rôles sont lus à part
+@NamedEntityGraph(name = RefreshToken.WITH_UTILISATEUR, attributeNodes = @NamedAttributeNode("utilisateur"))
+public class RefreshToken {
+
+    public static final String WITH_UTILISATEUR = "RefreshToken.utilisateur";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Empreinte SHA-256 du token : la valeur brute n'est jamais stockée
+    @Column(name = "token_hash", nullable = false, unique = true)
+    private String tokenHash;
+
+    // Tous les tokens issus d'une même connexion par rotations successives
+    @Column(name = "family_id", nullable = false, length = 36)
+    private String familyId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "utilisateur_id", nullable = false)
+    private Utilisateur utilisateur;
+
+    @Column(name = "expiry_date", nullable = false)
+    private LocalDateTime expiryDate;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "used_at")
+    private LocalDateTime usedAt;
+
+    @Column(nullable = false)
+    private boolean revoked;
+
+    @Override
+    public String toString() {
+        return "RefreshToken{" +
+                "id=" + id +
+                ", familyId='" + familyId + '\'' +
+                ", expiryDate=" + expiryDate +
+                ", usedAt=" + usedAt +
+                ", revoked=" + revoked +
+                '}';
+    }
+}
@@ -1,5 +1,6 @@
 package cm.adcsa.auth.entity;
 
+import cm.adcsa.auth.enums.Permission;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -28,6 +29,13 @@ public class Role {
     @Column(length = 200)
     private String description;
 
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "role_permission", joinColumns = @JoinColumn(name = "role_id"))
+    @Enumerated(EnumType.STRING)
+    @Column(name = "permission", length = 50)
+    @Builder.Default
+    private Set<Permission> permissions = new HashSet<>();
+
     @ManyToMany(mappedBy = "roles")
     @Builder.Default
     private Set<Utilisateur> utilisateurs = new HashSet<>();
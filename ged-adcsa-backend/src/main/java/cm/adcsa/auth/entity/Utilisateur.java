@@ -13,6 +13,7 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -22,10 +23,16 @@ import java.util.stream.Collectors;
 @AllArgsConstructor
 @Entity
 @Table(name = "\"utilisateur\"")
+// Plan de chargement des cas d'usage qui ont besoin des rôles (connexion, vue d'administration)
+@NamedEntityGraph(name = Utilisateur.WITH_ROLES, attributeNodes = @NamedAttributeNode("roles"))
 public class Utilisateur implements UserDetails {
 
+    public static final String WITH_ROLES = "Utilisateur.roles";
+
+    // Séquence partagée avec l'import JDBC, qui insère sans identifiant (V15)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "utilisateur_seq")
+    @SequenceGenerator(name = "utilisateur_seq", sequenceName = "utilisateur_seq", allocationSize = 1)
     private Long id;
 
     @Column(nullable = false, length = 100)
@@ -80,7 +87,12 @@ public class Utilisateur implements UserDetails {
     @Column(name = "first_login_expires_at")
     private LocalDateTime firstLoginExpiresAt;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    @Column(name = "security_version", nullable = false)
+    @Builder.Default
+    private Long securityVersion = 0L;
+
+    // Chargés à la demande, via le graphe WITH_ROLES, jamais implicitement
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
         name = "utilisateur_role",
         joinColumns = @JoinColumn(name = "utilisateur_id"),
@@ -299,6 +311,19 @@ public class Utilisateur implements UserDetails {
         this.firstLoginExpiresAt = firstLoginExpiresAt;
     }
 
+    public Long getSecurityVersion() {
+        return securityVersion;
+    }
+
+    public void setSecurityVersion(Long securityVersion) {
+        this.securityVersion = securityVersion;
+    }
+
+    public long incrementSecurityVersion() {
+        this.securityVersion = (this.securityVersion == null ? 0L : this.securityVersion) + 1;
+        return this.securityVersion;
+    }
+
     public Set<UtilisateurPasswordHistory> getPasswordHistory() {
         return new HashSet<>(passwordHistory);
     }
@@ -334,15 +359,20 @@ public class Utilisateur implements UserDetails {
         this.roles.remove(role);
     }
 
-    public boolean isAccountLocked() {
+    /**
+     * Compte bloqué par un administrateur, ou verrouillé après trop d'échecs et dont
+     * la durée de verrouillage n'est pas écoulée.
+     */
+    public boolean isAccountLocked(long lockDurationMillis) {
         if (this.statut == StatutUtilisateur.BLOQUE) {
             return true;
         }
-        
-        if (this.dateVerrouillage != null) {
-            return LocalDateTime.now().isBefore(this.dateVerrouillage.plusMinutes(30));
+
+        if (Boolean.TRUE.equals(this.compteVerrouille)) {
+            return this.dateVerrouillage == null
+                    || LocalDateTime.now().isBefore(this.dateVerrouillage.plus(lockDurationMillis, ChronoUnit.MILLIS));
         }
-        
+
         return false;
     }
 
@@ -0,0 +1,30 @@
+package cm.adcsa.auth.enums;
+
+/**
+ * Permissions fines accordées aux rôles. Chaque permission occupe un bit fixe du
+ * masque porté par le principal et par le claim {@code perm} des tokens : ne jamais
+ * réutiliser ni renuméroter un bit existant.
+ */
+public enum Permission {
+    USER_READ(0),
+    USER_WRITE(1),
+    ROLE_MANAGE(2),
+    DOCUMENT_READ(3),
+    DOCUMENT_WRITE(4),
+    DOCUMENT_VALIDATE(5),
+    DOCUMENT_ARCHIVE(6);
+
+    private final long mask;
+
+    Permission(int bit) {
+        this.mask = 1L << bit;
+    }
+
+    public long getMask() {
+        return mask;
+    }
+
+    public boolean isGrantedBy(long permissions) {
+        return (permissions & mask) != 0;
+    }
+}
@@ -0,0 +1,49 @@
+package cm.adcsa.auth.enums;
+
+import cm.adcsa.auth.dto.UserSummary;
+
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+/**
+ * Colonnes autorisées pour le tri de la liste des utilisateurs. L'identifiant sert
+ * toujours de second critère, ce qui rend la position de pagination unique.
+ */
+public enum UserSortField {
+    ID("id", UserSummary::id, Long::valueOf),
+    USERNAME("username", UserSummary::username, Function.identity()),
+    NOM("nom", UserSummary::nom, Function.identity()),
+    EMAIL("email", UserSummary::email, Function.identity()),
+    DATE_CREATION("dateCreation", UserSummary::dateCreation, LocalDateTime::parse);
+
+    private final String property;
+    private final Function<UserSummary, Object> extractor;
+    private final Function<String, Object> parser;
+
+    UserSortField(String property, Function<UserSummary, ?> extractor, Function<String, ?> parser) {
+        this.property = property;
+        this.extractor = extractor::apply;
+        this.parser = parser::apply;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public Object valueOf(UserSummary summary) {
+        return extractor.apply(summary);
+    }
+
+    public Object parse(String value) {
+        return parser.apply(value);
+    }
+
+    public static UserSortField fromProperty(String property) {
+        for (UserSortField field : values()) {
+            if (field.property.equalsIgnoreCase(property)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Tri non supporté: " + property);
+    }
+}
@@ -0,0 +1,19 @@
+package cm.adcsa.auth.exception;
+
+/**
+ * Levée quand une ressource bornée (pool de hachage, ...) est saturée : le client
+ * doit réessayer après le délai indiqué plutôt que d'attendre.
+ */
+public class ServiceOverloadedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceOverloadedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
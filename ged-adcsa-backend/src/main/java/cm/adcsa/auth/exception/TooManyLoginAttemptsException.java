@@ -0,0 +1,19 @@
+package cm.adcsa.auth.exception;
+
+/**
+ * Levée avant toute vérification de mot de passe quand un nom d'utilisateur ou une
+ * adresse IP a dépassé le nombre de tentatives autorisé sur la fenêtre glissante.
+ */
+public class TooManyLoginAttemptsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyLoginAttemptsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,13 @@
+package cm.adcsa.auth.repository;
+
+import cm.adcsa.auth.entity.Groupe;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface GroupeRepository extends JpaRepository<Groupe, Long> {
+
+    boolean existsByNom(String nom);
+
+    boolean existsByParentId(Long parentId);
+}
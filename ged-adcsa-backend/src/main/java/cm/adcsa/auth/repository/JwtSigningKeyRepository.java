@@ -0,0 +1,23 @@
+package cm.adcsa.auth.repository;
+
+import cm.adcsa.auth.entity.JwtSigningKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface JwtSigningKeyRepository extends JpaRepository<JwtSigningKey, String> {
+
+    List<JwtSigningKey> findByExpiresAtAfterOrderByActivatesAtDesc(LocalDateTime date);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM JwtSigningKey k WHERE k.expiresAt <= :date")
+    int deleteExpiredKeys(@Param("date") LocalDateTime date);
+}
@@ -0,0 +1,9 @@
+package cm.adcsa.auth.repository;
+
+import cm.adcsa.auth.entity.PasswordHashCalibration;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PasswordHashCalibrationRepository extends JpaRepository<PasswordHashCalibration, String> {
+}
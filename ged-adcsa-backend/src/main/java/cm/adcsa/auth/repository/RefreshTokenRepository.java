@@ -0,0 +1,41 @@
+package cm.adcsa.auth.repository;
+
+import cm.adcsa.auth.entity.RefreshToken;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    @EntityGraph(RefreshToken.WITH_UTILISATEUR)
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    // Consommation atomique : deux rotations concurrentes du même token ne peuvent pas réussir toutes les deux
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.usedAt = :now WHERE t.id = :id AND t.usedAt IS NULL AND t.revoked = false")
+    int markAsUsed(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revoked = true WHERE t.familyId = :familyId AND t.revoked = false")
+    int revokeFamily(@Param("familyId") String familyId);
+
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revoked = true WHERE t.utilisateur.id = :utilisateurId AND t.revoked = false")
+    int revokeAllForUtilisateur(@Param("utilisateurId") Long utilisateurId);
+
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.utilisateur.id = :utilisateurId")
+    void deleteByUtilisateurId(@Param("utilisateurId") Long utilisateurId);
+
+    @Query("SELECT t.id FROM RefreshToken t WHERE t.expiryDate < :date")
+    List<Long> findExpiredIds(@Param("date") LocalDateTime date, Pageable pageable);
+}
@@ -0,0 +1,24 @@
+package cm.adcsa.auth.repository;
+
+import cm.adcsa.auth.entity.RevokedUtilisateur;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedUtilisateurRepository extends JpaRepository<RevokedUtilisateur, Long> {
+
+    @Query("SELECT r.utilisateurId FROM RevokedUtilisateur r WHERE r.expiresAt > :now")
+    List<Long> findActiveIds(@Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RevokedUtilisateur r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -2,8 +2,10 @@ package cm.adcsa.auth.repository;
 
 import cm.adcsa.auth.entity.Role;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +14,8 @@ public interface RoleRepository extends JpaRepository<Role, Long> {
     Optional<Role> findByNom(String nom);
 
     boolean existsByNom(String nom);
+
+    // Paires (nom du rôle, permission) pour la compilation des masques de permissions
+    @Query("SELECT r.nom, p FROM Role r JOIN r.permissions p")
+    List<Object[]> findRolePermissions();
 }
\ No newline at end of file
@@ -1,7 +1,7 @@
 package cm.adcsa.auth.repository;
 
-import cm.adcsa.auth.entity.Utilisateur;
 import cm.adcsa.auth.entity.UtilisateurPasswordHistory;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -11,6 +11,7 @@ import java.util.List;
 
 @Repository
 public interface UtilisateurPasswordHistoryRepository extends JpaRepository<UtilisateurPasswordHistory, Long> {
-    @Query("SELECT h FROM UtilisateurPasswordHistory h WHERE h.utilisateur = :utilisateur ORDER BY h.changedAt DESC")
-    List<UtilisateurPasswordHistory> findTop5ByUtilisateurOrderByChangedAtDesc(@Param("utilisateur") Utilisateur utilisateur);
+    // Contrôle de l'historique : seules les empreintes les plus récentes sont lues (index utilisateur_id, changed_at)
+    @Query("SELECT h.password FROM UtilisateurPasswordHistory h WHERE h.utilisateur.id = :utilisateurId ORDER BY h.changedAt DESC")
+    List<String> findRecentPasswords(@Param("utilisateurId") Long utilisateurId, Pageable pageable);
 } 
\ No newline at end of file
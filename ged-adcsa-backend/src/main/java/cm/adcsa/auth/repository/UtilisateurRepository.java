@@ -1,23 +1,48 @@
 package cm.adcsa.auth.repository;
 
+import cm.adcsa.auth.dto.UserSummary;
 import cm.adcsa.auth.entity.Utilisateur;
 import cm.adcsa.auth.enums.StatutUtilisateur;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface UtilisateurRepository extends JpaRepository<Utilisateur, Long> {
+public interface UtilisateurRepository extends JpaRepository<Utilisateur, Long>, UtilisateurSearchRepository {
     Optional<Utilisateur> findByUsername(String username);
+
+    // Vue d'administration et modifications renvoyant l'utilisateur avec ses rôles
+    @EntityGraph(Utilisateur.WITH_ROLES)
+    Optional<Utilisateur> findWithRolesById(Long id);
     Optional<Utilisateur> findByEmail(String email);
+
+    // Insensible à la casse : servi par l'index unique sur LOWER(email) (V14, PostgreSQL)
+    @Query("SELECT u FROM Utilisateur u WHERE LOWER(u.email) = LOWER(:email)")
+    Optional<Utilisateur> findByEmailIgnoringCase(@Param("email") String email);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+
+    // Import en masse : contrôle d'unicité par lot plutôt que ligne par ligne
+    @Query("SELECT u.username FROM Utilisateur u WHERE u.username IN :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    // Emails attendus en minuscules ; renvoyés en minuscules
+    @Query("SELECT LOWER(u.email) FROM Utilisateur u WHERE LOWER(u.email) IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
     List<Utilisateur> findByStatut(StatutUtilisateur statut);
     List<Utilisateur> findByCompteVerrouilleTrue();
     List<Utilisateur> findByIsFirstLoginTrue();
@@ -34,10 +59,46 @@ public interface UtilisateurRepository extends JpaRepository<Utilisateur, Long>
     @Query("UPDATE Utilisateur u SET u.password = :newPassword, u.passwordChangedAt = :now WHERE u.id = :id")
     void updatePassword(@Param("id") Long id, @Param("newPassword") String newPassword, @Param("now") LocalDateTime now);
 
+    // Ré-encodage transparent : la date de changement du mot de passe n'est pas modifiée
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Utilisateur u SET u.password = :password WHERE u.id = :id")
+    int rehashPassword(@Param("id") Long id, @Param("password") String password);
+
     @Modifying
     @Query("UPDATE Utilisateur u SET u.derniereConnexion = :now WHERE u.id = :id")
     void updateLastLogin(@Param("id") Long id, @Param("now") LocalDateTime now);
 
+    // Export : lecture par curseur, les projections ne sont pas gérées par le contexte de persistance
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new cm.adcsa.auth.dto.UserSummary(u.id, u.nom, u.prenom, u.email, u.username, u.statut, " +
+           "u.derniereConnexion, u.dateCreation, u.dateModification, u.compteVerrouille, u.isFirstLogin) " +
+           "FROM Utilisateur u ORDER BY u.id")
+    Stream<UserSummary> streamAllSummaries();
+
+    @Query("SELECT u.id, u.securityVersion FROM Utilisateur u WHERE u.securityVersion > 0")
+    List<Object[]> findSecurityVersions();
+
+    @Modifying
+    @Query("UPDATE Utilisateur u SET u.securityVersion = u.securityVersion + 1 WHERE u.id IN :ids")
+    int incrementSecurityVersions(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT u.id, u.securityVersion FROM Utilisateur u WHERE u.id IN :ids")
+    List<Object[]> findSecurityVersionsByIds(@Param("ids") Collection<Long> ids);
+
+    // Ensemble des rôles de l'utilisateur en une seule requête indexée : rôles directs et rôles
+    // hérités de ses groupes et de tous leurs ancêtres, via la table de fermeture
+    @Query(value = "SELECT r.nom FROM utilisateur_role ur " +
+                   "JOIN role r ON r.id = ur.role_id " +
+                   "WHERE ur.utilisateur_id = :utilisateurId " +
+                   "UNION " +
+                   "SELECT r.nom FROM utilisateur_groupe ug " +
+                   "JOIN groupe_closure gc ON gc.descendant_id = ug.groupe_id " +
+                   "JOIN groupe_role gr ON gr.groupe_id = gc.ancetre_id " +
+                   "JOIN role r ON r.id = gr.role_id " +
+                   "WHERE ug.utilisateur_id = :utilisateurId", nativeQuery = true)
+    List<String> findRoleNames(@Param("utilisateurId") Long utilisateurId);
+
     @Query("SELECT COUNT(u) FROM Utilisateur u WHERE u.statut = :statut")
     long countByStatut(@Param("statut") StatutUtilisateur statut);
 
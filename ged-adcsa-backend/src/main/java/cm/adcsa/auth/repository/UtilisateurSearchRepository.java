@@ -0,0 +1,24 @@
+package cm.adcsa.auth.repository;
+
+import cm.adcsa.auth.dto.UserRoleRow;
+import cm.adcsa.auth.dto.UserSearchCriteria;
+import cm.adcsa.auth.dto.UserSummary;
+import cm.adcsa.auth.enums.UserSortField;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Requêtes de liste des utilisateurs construites selon les filtres demandés.
+ */
+public interface UtilisateurSearchRepository {
+
+    /**
+     * Utilisateurs situés après la position ({@code afterValue}, {@code afterId}) dans
+     * l'ordre demandé ; sans position, depuis le début.
+     */
+    List<UserSummary> search(UserSearchCriteria criteria, UserSortField sort, boolean descending,
+                             Object afterValue, Long afterId, int limit);
+
+    List<UserRoleRow> findRoleRows(Collection<Long> utilisateurIds);
+}
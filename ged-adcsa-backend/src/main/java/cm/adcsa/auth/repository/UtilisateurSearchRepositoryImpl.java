@@ -0,0 +1,86 @@
+package cm.adcsa.auth.repository;
+
+import cm.adcsa.auth.dto.UserRoleRow;
+import cm.adcsa.auth.dto.UserSearchCriteria;
+import cm.adcsa.auth.dto.UserSummary;
+import cm.adcsa.auth.enums.UserSortField;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class UtilisateurSearchRepositoryImpl implements UtilisateurSearchRepository {
+
+    private static final String SELECT_SUMMARY =
+            "SELECT new cm.adcsa.auth.dto.UserSummary(u.id, u.nom, u.prenom, u.email, u.username, u.statut, " +
+            "u.derniereConnexion, u.dateCreation, u.dateModification, u.compteVerrouille, u.isFirstLogin) " +
+            "FROM Utilisateur u WHERE 1 = 1";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<UserSummary> search(UserSearchCriteria criteria, UserSortField sort, boolean descending,
+                                    Object afterValue, Long afterId, int limit) {
+        StringBuilder jpql = new StringBuilder(SELECT_SUMMARY);
+        Map<String, Object> parameters = new HashMap<>();
+
+        if (criteria.getStatut() != null) {
+            jpql.append(" AND u.statut = :statut");
+            parameters.put("statut", criteria.getStatut());
+        }
+        if (criteria.getRole() != null && !criteria.getRole().isBlank()) {
+            jpql.append(" AND EXISTS (SELECT r.id FROM u.roles r WHERE r.nom = :role)");
+            parameters.put("role", criteria.getRole());
+        }
+        if (criteria.getLocked() != null) {
+            jpql.append(" AND COALESCE(u.compteVerrouille, false) = :locked");
+            parameters.put("locked", criteria.getLocked());
+        }
+        if (criteria.getFirstLogin() != null) {
+            jpql.append(" AND u.isFirstLogin = :firstLogin");
+            parameters.put("firstLogin", criteria.getFirstLogin());
+        }
+
+        // Pagination par clé : (colonne de tri, id) strictement après la dernière ligne lue
+        String property = "u." + sort.getProperty();
+        String comparison = descending ? "<" : ">";
+        if (afterId != null) {
+            if (sort == UserSortField.ID) {
+                jpql.append(" AND u.id ").append(comparison).append(" :afterId");
+            } else {
+                jpql.append(" AND (").append(property).append(' ').append(comparison).append(" :afterValue")
+                    .append(" OR (").append(property).append(" = :afterValue AND u.id ")
+                    .append(comparison).append(" :afterId))");
+                parameters.put("afterValue", afterValue);
+            }
+            parameters.put("afterId", afterId);
+        }
+
+        String direction = descending ? " DESC" : " ASC";
+        jpql.append(" ORDER BY ").append(property).append(direction);
+        if (sort != UserSortField.ID) {
+            jpql.append(", u.id").append(direction);
+        }
+
+        TypedQuery<UserSummary> query = entityManager.createQuery(jpql.toString(), UserSummary.class);
+        parameters.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public List<UserRoleRow> findRoleRows(Collection<Long> utilisateurIds) {
+        if (utilisateurIds.isEmpty()) {
+            return List.of();
+        }
+        return entityManager.createQuery(
+                        "SELECT new cm.adcsa.auth.dto.UserRoleRow(u.id, r.id, r.nom, r.description) " +
+                        "FROM Utilisateur u JOIN u.roles r WHERE u.id IN :ids", UserRoleRow.class)
+                .setParameter("ids", utilisateurIds)
+                .getResultList();
+    }
+}
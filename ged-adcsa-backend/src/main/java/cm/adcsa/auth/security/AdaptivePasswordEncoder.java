@@ -0,0 +1,92 @@
+package cm.adcsa.auth.security;
+
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Encodeur délégant à préfixe {id} qui demande une ré-encryption quand le hash stocké
+ * n'utilise pas l'algorithme courant ou des paramètres plus faibles que les paramètres
+ * courants. Un hash plus coûteux est conservé : il n'est jamais affaibli.
+ * <p>
+ * Le nombre d'itérations PBKDF2 n'est pas inscrit dans le hash : il est porté par
+ * l'identifiant ({@code {pbkdf2-600000}}), et un hash reste vérifiable quand les
+ * itérations configurées ou calibrées changent. Les hashes {@code {pbkdf2}} antérieurs
+ * sont vérifiés avec les itérations courantes puis ré-encodés.
+ */
+public class AdaptivePasswordEncoder extends DelegatingPasswordEncoder {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+    private static final Pattern ARGON2_PARAMS = Pattern.compile("\\$m=(\\d+),t=(\\d+),p=(\\d+)\\$");
+    private static final Pattern PBKDF2_ID = Pattern.compile("^\\{" + PasswordHashParameters.PBKDF2 + "-(\\d+)}");
+
+    private final String idForEncode;
+    private final PasswordHashParameters parameters;
+    private final IntFunction<PasswordEncoder> pbkdf2Factory;
+    private final Map<Integer, PasswordEncoder> pbkdf2Encoders = new ConcurrentHashMap<>();
+
+    public AdaptivePasswordEncoder(String idForEncode, Map<String, PasswordEncoder> encoders,
+                                   PasswordEncoder legacyEncoder, PasswordHashParameters parameters,
+                                   IntFunction<PasswordEncoder> pbkdf2Factory) {
+        super(idForEncode, encoders);
+        setDefaultPasswordEncoderForMatches(legacyEncoder);
+        this.idForEncode = idForEncode;
+        this.parameters = parameters;
+        this.pbkdf2Factory = pbkdf2Factory;
+    }
+
+    public static String pbkdf2Id(int iterations) {
+        return PasswordHashParameters.PBKDF2 + "-" + iterations;
+    }
+
+    public PasswordHashParameters getParameters() {
+        return parameters;
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String prefixEncodedPassword) {
+        Matcher matcher = prefixEncodedPassword != null ? PBKDF2_ID.matcher(prefixEncodedPassword) : null;
+        if (matcher == null || !matcher.find()) {
+            return super.matches(rawPassword, prefixEncodedPassword);
+        }
+        // Encodeur construit pour les itérations inscrites dans l'identifiant du hash
+        PasswordEncoder encoder = pbkdf2Encoders.computeIfAbsent(Integer.parseInt(matcher.group(1)),
+                pbkdf2Factory::apply);
+        return encoder.matches(rawPassword, prefixEncodedPassword.substring(matcher.end()));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String prefixEncodedPassword) {
+        if (prefixEncodedPassword == null) {
+            return true;
+        }
+        Matcher pbkdf2 = PBKDF2_ID.matcher(prefixEncodedPassword);
+        if (pbkdf2.find() && idForEncode.startsWith(PasswordHashParameters.PBKDF2 + "-")) {
+            return Integer.parseInt(pbkdf2.group(1)) < parameters.getPbkdf2Iterations();
+        }
+        if (!prefixEncodedPassword.startsWith("{" + idForEncode + "}")) {
+            // Hash sans préfixe (BCrypt historique), {pbkdf2} sans itérations ou produit par un autre algorithme
+            return true;
+        }
+        String encoded = prefixEncodedPassword.substring(idForEncode.length() + 2);
+        switch (idForEncode) {
+            case PasswordHashParameters.BCRYPT: {
+                Matcher matcher = BCRYPT_COST.matcher(encoded);
+                return !matcher.find() || Integer.parseInt(matcher.group(1)) < parameters.getBcryptCost();
+            }
+            case PasswordHashParameters.ARGON2: {
+                Matcher matcher = ARGON2_PARAMS.matcher(encoded);
+                return !matcher.find()
+                        || Integer.parseInt(matcher.group(1)) < parameters.getArgon2MemoryKib()
+                        || Integer.parseInt(matcher.group(2)) < parameters.getArgon2Iterations();
+            }
+            default:
+                return false;
+        }
+    }
+}
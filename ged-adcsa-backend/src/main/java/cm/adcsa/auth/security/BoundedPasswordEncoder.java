@@ -0,0 +1,47 @@
+package cm.adcsa.auth.security;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Exécute l'encodage et la vérification sur le {@link PasswordHashingExecutor}
+ * plutôt que sur le thread de la requête.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final PasswordHashingExecutor executor;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, PasswordHashingExecutor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return executor.execute(() -> delegate.encode(rawPassword));
+    }
+
+    /**
+     * Encode un lot de mots de passe en parallèle, sans occuper plus de threads du pool
+     * qu'il n'en compte.
+     */
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        List<Callable<String>> tasks = rawPasswords.stream()
+                .<Callable<String>>map(rawPassword -> () -> delegate.encode(rawPassword))
+                .toList();
+        return executor.invokeAll(tasks, executor.getPoolSize());
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return executor.execute(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -0,0 +1,38 @@
+package cm.adcsa.auth.security;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * État partagé entre les instances du backend : compteurs atomiques, clés à durée de
+ * vie et diffusion d'invalidations. Les caches locaux restent la source des lectures
+ * rapides ; ce service ne sert qu'à les garder cohérents et à partager les compteurs.
+ * Un message publié est reçu par toutes les instances, y compris l'émettrice : les
+ * traitements abonnés doivent être idempotents.
+ */
+public interface ClusterCoordinator {
+
+    /**
+     * Incrémente atomiquement le compteur et renvoie sa nouvelle valeur. La durée de vie
+     * est fixée à la création du compteur et n'est pas prolongée par les incréments.
+     */
+    long increment(String key, Duration ttl);
+
+    /**
+     * Valeurs des compteurs donnés, 0 pour un compteur absent ou expiré.
+     */
+    long[] getCounters(String... keys);
+
+    void setValue(String key, String value, Duration ttl);
+
+    /**
+     * Valeur associée à la clé, ou {@code null} si elle est absente ou expirée.
+     */
+    String getValue(String key);
+
+    void delete(String... keys);
+
+    void publish(String channel, String message);
+
+    void subscribe(String channel, Consumer<String> listener);
+}
@@ -0,0 +1,85 @@
+package cm.adcsa.auth.security;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Coordination pour une instance unique : les clés sont conservées dans un cache LRU
+ * borné et les messages sont remis de façon synchrone aux abonnés locaux.
+ */
+@Slf4j
+public class InMemoryClusterCoordinator implements ClusterCoordinator, MeterBinder {
+
+    private final StripedLruCache<String, Object> entries;
+    private final Map<String, List<Consumer<String>>> listeners = new ConcurrentHashMap<>();
+
+    public InMemoryClusterCoordinator(int maxKeys, int segments) {
+        this.entries = new StripedLruCache<>(maxKeys, segments);
+    }
+
+    @Override
+    public long increment(String key, Duration ttl) {
+        Object counter = entries.computeIfAbsent(key, k -> new AtomicLong(),
+                System.currentTimeMillis() + ttl.toMillis());
+        return ((AtomicLong) counter).incrementAndGet();
+    }
+
+    @Override
+    public long[] getCounters(String... keys) {
+        long[] values = new long[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            values[i] = entries.get(keys[i]) instanceof AtomicLong counter ? counter.get() : 0L;
+        }
+        return values;
+    }
+
+    @Override
+    public void setValue(String key, String value, Duration ttl) {
+        entries.put(key, value, System.currentTimeMillis() + ttl.toMillis());
+    }
+
+    @Override
+    public String getValue(String key) {
+        return entries.get(key) instanceof String value ? value : null;
+    }
+
+    @Override
+    public void delete(String... keys) {
+        for (String key : keys) {
+            entries.invalidate(key);
+        }
+    }
+
+    @Override
+    public void publish(String channel, String message) {
+        for (Consumer<String> listener : listeners.getOrDefault(channel, List.of())) {
+            try {
+                listener.accept(message);
+            } catch (RuntimeException e) {
+                log.error("Échec du traitement d'un message sur le canal {}: {}", channel, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(String channel, Consumer<String> listener) {
+        listeners.computeIfAbsent(channel, c -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("auth.coordination.keys", entries, StripedLruCache::size)
+                .tag("backend", "memory")
+                .register(registry);
+    }
+}
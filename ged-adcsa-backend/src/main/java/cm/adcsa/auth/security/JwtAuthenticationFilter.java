@@ -8,6 +8,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -20,6 +21,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Lazy;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Component
 @Slf4j
@@ -32,6 +34,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Lazy
     private CustomUserDetailsService userDetailsService;
 
+    @Autowired
+    private SecurityVersionRegistry securityVersionRegistry;
+
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Value("${app.jwt.stateless-principal:true}")
+    private boolean statelessPrincipal;
+
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
         String path = request.getRequestURI();
@@ -42,7 +56,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         boolean shouldNotFilter = relativePath.startsWith("/auth/") || 
                                 relativePath.startsWith("/h2-console/") ||
-                                relativePath.startsWith("/actuator/") ||
+                                relativePath.startsWith("/actuator/health") ||
                                 relativePath.startsWith("/v3/api-docs/") ||
                                 relativePath.startsWith("/swagger-ui/");
         
@@ -57,17 +71,21 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             String jwt = getJwtFromRequest(request);
             log.debug("JWT extrait de la requête: {}", jwt != null ? "présent" : "absent");
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromToken(jwt);
-                log.debug("Nom d'utilisateur extrait du token: {}", username);
-
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                    userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            Optional<VerifiedToken> verified = StringUtils.hasText(jwt) ? verifyToken(jwt) : Optional.empty();
+            if (verified.isPresent() && tokenRevocationService.isRevoked(verified.get().getId())) {
+                log.debug("Token révoqué: {}", verified.get().getId());
+            } else if (verified.isPresent()) {
+                UserDetails userDetails = resolvePrincipal(verified.get());
+                if (userDetails.isEnabled()) {
+                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                        userDetails, null, userDetails.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-                log.debug("Authentification établie pour l'utilisateur: {}", username);
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                    log.debug("Authentification établie pour l'utilisateur: {}", userDetails.getUsername());
+                } else {
+                    log.debug("Compte désactivé pour l'utilisateur: {}", userDetails.getUsername());
+                }
             }
         } catch (Exception ex) {
             log.error("Impossible de définir l'authentification de l'utilisateur dans le contexte de sécurité", ex);
@@ -76,6 +94,32 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private Optional<VerifiedToken> verifyToken(String jwt) {
+        VerifiedToken cached = verifiedTokenCache.get(jwt);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<VerifiedToken> verified = tokenProvider.verify(jwt);
+        verified.ifPresent(token -> verifiedTokenCache.put(jwt, token));
+        return verified;
+    }
+
+    private UserDetails resolvePrincipal(VerifiedToken token) {
+        if (statelessPrincipal) {
+            // Cas nominal : principal reconstruit depuis les claims signés, sans requête SQL
+            UserPrincipal principal = tokenProvider.toPrincipal(token);
+            if (principal != null && securityVersionRegistry.isCurrent(principal.getId(), principal.getSecurityVersion())) {
+                log.debug("Principal reconstruit depuis le token pour: {}", principal.getUsername());
+                return principal;
+            }
+        }
+
+        // Token ancien ou périmé (rôles/statut modifiés) : on relit l'utilisateur en base
+        String username = tokenProvider.getUsernameClaim(token);
+        log.debug("Nom d'utilisateur extrait du token: {}", username);
+        return userDetailsService.loadUserByUsername(username);
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
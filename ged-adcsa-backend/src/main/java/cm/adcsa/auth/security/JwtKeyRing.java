@@ -0,0 +1,363 @@
+package cm.adcsa.auth.security;
+
+import cm.adcsa.auth.entity.JwtSigningKey;
+import cm.adcsa.auth.repository.JwtSigningKeyRepository;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.SignatureAlgorithm;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Trousseau de clés asymétriques pour la signature des JWT. Les clés sont
+ * persistées en base pour être partagées par toutes les instances ; une
+ * nouvelle clé est publiée dans le JWKS avant de commencer à signer et les
+ * anciennes restent vérifiables tant qu'un token signé avec elles peut être valide.
+ * Les clés privées sont chiffrées en base (AES-GCM) avec la clé fournie par
+ * {@code app.jwt.keys.encryption-key}.
+ */
+@Component
+@Slf4j
+public class JwtKeyRing extends LocatorAdapter<Key> {
+
+    private static final long RELOAD_ON_MISS_INTERVAL_MS = 30_000;
+    private static final String ENCRYPTED_PREFIX = "v1:";
+    private static final int GCM_IV_LENGTH = 12;
+    private static final int GCM_TAG_BITS = 128;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final JwtSigningKeyRepository keyRepository;
+    private final String algorithm;
+    private final Duration rotationInterval;
+    private final Duration publishAhead;
+    private final Duration gracePeriod;
+    private final SecretKey encryptionKey;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private volatile long lastReloadOnMiss;
+
+    public JwtKeyRing(JwtSigningKeyRepository keyRepository,
+                      @Value("${app.jwt.algorithm:HS256}") String algorithm,
+                      @Value("${app.jwt.keys.rotation-interval:P30D}") Duration rotationInterval,
+                      @Value("${app.jwt.keys.publish-ahead:PT1H}") Duration publishAhead,
+                      @Value("${app.jwt.expiration}") long jwtExpirationInMs,
+                      @Value("${app.jwt.keys.encryption-key}") String encryptionKey) {
+        this.keyRepository = keyRepository;
+        this.algorithm = algorithm;
+        this.rotationInterval = rotationInterval;
+        this.publishAhead = publishAhead;
+        // Une clé doit rester vérifiable pendant toute la durée de vie des tokens d'accès qu'elle a signés
+        this.gracePeriod = Duration.ofMillis(jwtExpirationInMs);
+        this.encryptionKey = encryptionKey(encryptionKey);
+    }
+
+    public boolean isAsymmetric() {
+        return !algorithm.startsWith("HS");
+    }
+
+    @PostConstruct
+    void init() {
+        if (isAsymmetric()) {
+            signatureAlgorithm(algorithm);
+            rotateIfNeeded();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.jwt.keys.check-interval:300000}",
+               initialDelayString = "${app.jwt.keys.check-interval:300000}")
+    public synchronized void rotateIfNeeded() {
+        if (!isAsymmetric()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<JwtSigningKey> keys = keyRepository.findByExpiresAtAfterOrderByActivatesAtDesc(now);
+        JwtSigningKey newest = keys.stream()
+                .filter(key -> algorithm.equals(key.getAlgorithm()))
+                .findFirst()
+                .orElse(null);
+
+        if (newest == null || !canStillSign(newest, now)) {
+            log.info("Aucune clé de signature {} utilisable, génération immédiate", algorithm);
+            createKey(now, now, newest);
+        } else if (!newest.getActivatesAt().isAfter(now)
+                && !newest.getActivatesAt().plus(rotationInterval).minus(publishAhead).isAfter(now)) {
+            // La clé courante arrive en fin de période : la suivante est publiée avant de signer
+            LocalDateTime activatesAt = now.plus(publishAhead);
+            log.info("Rotation planifiée de la clé {} : nouvelle clé active à {}", newest.getKid(), activatesAt);
+            createKey(now, activatesAt, newest);
+        }
+
+        encryptLegacyKeys(keys);
+        int purged = keyRepository.deleteExpiredKeys(now);
+        if (purged > 0) {
+            log.info("{} clé(s) de signature expirée(s) supprimée(s)", purged);
+        }
+        reload();
+    }
+
+    public SigningKey currentSigningKey() {
+        SigningKey signer = snapshot.signer;
+        if (signer == null || !signer.signUntil.isAfter(LocalDateTime.now())) {
+            rotateIfNeeded();
+            signer = snapshot.signer;
+        }
+        if (signer == null) {
+            throw new IllegalStateException("Aucune clé de signature JWT " + algorithm
+                    + " utilisable : vérifier app.jwt.keys.encryption-key et la table jwt_signing_key");
+        }
+        return signer;
+    }
+
+    public Map<String, Object> jwks() {
+        return snapshot.jwks;
+    }
+
+    public String jwksVersion() {
+        return snapshot.version;
+    }
+
+    @Override
+    protected Key locate(JwsHeader header) {
+        String kid = header.getKeyId();
+        if (kid == null) {
+            return null;
+        }
+        PublicKey key = snapshot.verificationKeys.get(kid);
+        if (key == null && System.currentTimeMillis() - lastReloadOnMiss > RELOAD_ON_MISS_INTERVAL_MS) {
+            // Clé créée par une autre instance depuis le dernier chargement
+            lastReloadOnMiss = System.currentTimeMillis();
+            reload();
+            key = snapshot.verificationKeys.get(kid);
+        }
+        return key;
+    }
+
+    private boolean canStillSign(JwtSigningKey key, LocalDateTime now) {
+        return key.getExpiresAt().minus(gracePeriod).isAfter(now);
+    }
+
+    /**
+     * Chaque instance vérifie la rotation pour son compte : la contrainte d'unicité sur
+     * le prédécesseur garantit qu'une seule d'entre elles crée la clé suivante, les
+     * autres reprennent cette clé au rechargement.
+     */
+    private void createKey(LocalDateTime now, LocalDateTime activatesAt, JwtSigningKey predecessor) {
+        KeyPair keyPair = generateKeyPair(algorithm);
+        String kid = UUID.randomUUID().toString();
+        JwtSigningKey key = JwtSigningKey.builder()
+                .kid(kid)
+                .algorithm(algorithm)
+                .publicKey(Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()))
+                .privateKey(encrypt(kid, keyPair.getPrivate().getEncoded()))
+                .createdAt(now)
+                .activatesAt(activatesAt)
+                .expiresAt(activatesAt.plus(rotationInterval).plus(gracePeriod))
+                .predecessorKid(predecessor != null ? predecessor.getKid() : "")
+                .build();
+        try {
+            keyRepository.saveAndFlush(key);
+        } catch (DataIntegrityViolationException e) {
+            log.info("Clé suivante déjà créée par une autre instance, clé {} abandonnée", key.getKid());
+            return;
+        }
+        log.info("Nouvelle clé de signature {} ({})", key.getKid(), algorithm);
+    }
+
+    // Clés enregistrées en clair avant le chiffrement : chiffrées à la première vérification
+    private void encryptLegacyKeys(List<JwtSigningKey> keys) {
+        for (JwtSigningKey key : keys) {
+            if (!key.getPrivateKey().startsWith(ENCRYPTED_PREFIX)) {
+                key.setPrivateKey(encrypt(key.getKid(), Base64.getDecoder().decode(key.getPrivateKey())));
+                keyRepository.save(key);
+                log.info("Clé privée {} chiffrée en base", key.getKid());
+            }
+        }
+    }
+
+    private synchronized void reload() {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, PublicKey> verificationKeys = new HashMap<>();
+        List<Map<String, ?>> jwkList = new ArrayList<>();
+        SigningKey signer = null;
+
+        for (JwtSigningKey key : keyRepository.findByExpiresAtAfterOrderByActivatesAtDesc(now)) {
+            try {
+                PublicKey publicKey = decodePublicKey(key);
+                verificationKeys.put(key.getKid(), publicKey);
+                jwkList.add(Jwks.builder()
+                        .key(publicKey)
+                        .id(key.getKid())
+                        .algorithm(key.getAlgorithm())
+                        .publicKeyUse("sig")
+                        .build());
+                if (signer == null && algorithm.equals(key.getAlgorithm())
+                        && !key.getActivatesAt().isAfter(now) && canStillSign(key, now)) {
+                    signer = new SigningKey(key.getKid(), decodePrivateKey(key, decrypt(key)), signatureAlgorithm(key.getAlgorithm()),
+                            key.getExpiresAt().minus(gracePeriod));
+                }
+            } catch (GeneralSecurityException | IllegalArgumentException e) {
+                log.error("Clé de signature {} illisible, ignorée: {}", key.getKid(), e.getMessage());
+            }
+        }
+
+        this.snapshot = new Snapshot(signer, verificationKeys, Map.of("keys", List.copyOf(jwkList)),
+                Integer.toHexString(verificationKeys.keySet().hashCode()));
+        log.debug("Trousseau JWT rechargé: {} clé(s) de vérification, signataire={}",
+                verificationKeys.size(), signer != null ? signer.kid : null);
+    }
+
+    private static SignatureAlgorithm signatureAlgorithm(String algorithm) {
+        switch (algorithm) {
+            case "RS256":
+                return Jwts.SIG.RS256;
+            case "ES256":
+                return Jwts.SIG.ES256;
+            case "EdDSA":
+                return Jwts.SIG.EdDSA;
+            default:
+                throw new IllegalArgumentException("Algorithme de signature JWT non supporté: " + algorithm);
+        }
+    }
+
+    private static KeyPair generateKeyPair(String algorithm) {
+        if ("EdDSA".equals(algorithm)) {
+            return Jwks.CRV.Ed25519.keyPair().build();
+        }
+        return signatureAlgorithm(algorithm).keyPair().build();
+    }
+
+    private static KeyFactory keyFactory(String algorithm) throws GeneralSecurityException {
+        switch (algorithm) {
+            case "RS256":
+                return KeyFactory.getInstance("RSA");
+            case "ES256":
+                return KeyFactory.getInstance("EC");
+            case "EdDSA":
+                return KeyFactory.getInstance("Ed25519");
+            default:
+                throw new IllegalArgumentException("Algorithme de signature JWT non supporté: " + algorithm);
+        }
+    }
+
+    private static PublicKey decodePublicKey(JwtSigningKey key) throws GeneralSecurityException {
+        return keyFactory(key.getAlgorithm())
+                .generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(key.getPublicKey())));
+    }
+
+    private static PrivateKey decodePrivateKey(JwtSigningKey key, byte[] encoded) throws GeneralSecurityException {
+        return keyFactory(key.getAlgorithm()).generatePrivate(new PKCS8EncodedKeySpec(encoded));
+    }
+
+    // "v1:" + Base64(IV || chiffré || tag) ; le kid est authentifié pour interdire l'échange de lignes
+    private String encrypt(String kid, byte[] privateKey) {
+        try {
+            byte[] iv = new byte[GCM_IV_LENGTH];
+            RANDOM.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, encryptionKey, new GCMParameterSpec(GCM_TAG_BITS, iv));
+            cipher.updateAAD(kid.getBytes(StandardCharsets.UTF_8));
+            byte[] encrypted = cipher.doFinal(privateKey);
+            return ENCRYPTED_PREFIX + Base64.getEncoder().encodeToString(
+                    ByteBuffer.allocate(iv.length + encrypted.length).put(iv).put(encrypted).array());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Chiffrement de la clé de signature impossible", e);
+        }
+    }
+
+    private byte[] decrypt(JwtSigningKey key) throws GeneralSecurityException {
+        String stored = key.getPrivateKey();
+        if (!stored.startsWith(ENCRYPTED_PREFIX)) {
+            return Base64.getDecoder().decode(stored);
+        }
+        byte[] data = Base64.getDecoder().decode(stored.substring(ENCRYPTED_PREFIX.length()));
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, encryptionKey, new GCMParameterSpec(GCM_TAG_BITS, data, 0, GCM_IV_LENGTH));
+        cipher.updateAAD(key.getKid().getBytes(StandardCharsets.UTF_8));
+        return cipher.doFinal(data, GCM_IV_LENGTH, data.length - GCM_IV_LENGTH);
+    }
+
+    private static SecretKey encryptionKey(String base64) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getDecoder().decode(base64 == null ? "" : base64.trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("app.jwt.keys.encryption-key doit être encodée en Base64", e);
+        }
+        if (bytes.length != 32) {
+            throw new IllegalStateException("app.jwt.keys.encryption-key doit faire 256 bits (32 octets en Base64)");
+        }
+        return new SecretKeySpec(bytes, "AES");
+    }
+
+    public static final class SigningKey {
+        private final String kid;
+        private final PrivateKey privateKey;
+        private final SignatureAlgorithm algorithm;
+        private final LocalDateTime signUntil;
+
+        private SigningKey(String kid, PrivateKey privateKey, SignatureAlgorithm algorithm, LocalDateTime signUntil) {
+            this.kid = kid;
+            this.privateKey = privateKey;
+            this.algorithm = algorithm;
+            this.signUntil = signUntil;
+        }
+
+        public String getKid() {
+            return kid;
+        }
+
+        public PrivateKey getPrivateKey() {
+            return privateKey;
+        }
+
+        public SignatureAlgorithm getAlgorithm() {
+            return algorithm;
+        }
+    }
+
+    private static final class Snapshot {
+        private static final Snapshot EMPTY = new Snapshot(null, Map.of(), Map.of("keys", List.of()), "0");
+
+        private final SigningKey signer;
+        private final Map<String, PublicKey> verificationKeys;
+        private final Map<String, Object> jwks;
+        private final String version;
+
+        private Snapshot(SigningKey signer, Map<String, PublicKey> verificationKeys, Map<String, Object> jwks, String version) {
+            this.signer = signer;
+            this.verificationKeys = verificationKeys;
+            this.jwks = jwks;
+            this.version = version;
+        }
+    }
+}
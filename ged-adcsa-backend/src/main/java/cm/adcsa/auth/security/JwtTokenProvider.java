@@ -1,8 +1,11 @@
 package cm.adcsa.auth.security;
 
+import cm.adcsa.auth.enums.StatutUtilisateur;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtBuilder;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.SignatureAlgorithm;
@@ -19,12 +22,17 @@ import org.springframework.stereotype.Component;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import io.jsonwebtoken.io.Decoders;
+import jakarta.annotation.PostConstruct;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Component
@@ -35,11 +43,17 @@ public class JwtTokenProvider {
     private static final Logger logger = LoggerFactory.getLogger(JwtTokenProvider.class);
     private static final int MIN_SECRET_KEY_LENGTH = 256; // 32 bytes minimum for HS256
 
-    private static final String CLAIM_USER_ID = "userId";
+    public static final String CLAIM_USER_ID = "userId";
     private static final String CLAIM_EMAIL = "email";
     private static final String CLAIM_NOM = "nom";
     private static final String CLAIM_PRENOM = "prenom";
     private static final String CLAIM_ROLES = "roles";
+    private static final String CLAIM_USERNAME = "username";
+    private static final String CLAIM_STATUT = "statut";
+    private static final String CLAIM_SECURITY_VERSION = "sv";
+    private static final String CLAIM_PERMISSIONS = "perm";
+
+    private final JwtKeyRing keyRing;
 
     @Value("${app.jwt.secret}")
     private String jwtSecret;
@@ -50,53 +64,84 @@ public class JwtTokenProvider {
     @Value("${app.jwt.refresh-token.expiration}")
     private long refreshTokenExpirationInMs;
 
-    private SecretKey getSigningKey() {
+    // Clé et parser construits une seule fois : le JwtParser de jjwt est immuable et thread-safe
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    void init() {
+        if (keyRing.isAsymmetric()) {
+            // RS256/ES256/EdDSA : la clé de vérification est choisie d'après l'en-tête kid
+            this.jwtParser = Jwts.parser()
+                    .keyLocator(keyRing)
+                    .build();
+            return;
+        }
         byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
-        return Keys.hmacShaKeyFor(keyBytes);
+        this.signingKey = Keys.hmacShaKeyFor(keyBytes);
+        this.jwtParser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+    }
+
+    private String sign(JwtBuilder builder) {
+        if (keyRing.isAsymmetric()) {
+            JwtKeyRing.SigningKey key = keyRing.currentSigningKey();
+            return builder
+                    .header().keyId(key.getKid()).and()
+                    .signWith(key.getPrivateKey(), key.getAlgorithm())
+                    .compact();
+        }
+        return builder
+                .signWith(signingKey)
+                .compact();
     }
 
     public String generateAccessToken(UserPrincipal userPrincipal) {
         log.debug("Génération du token d'accès pour l'utilisateur: {}", userPrincipal.getEmail());
-        return generateToken(userPrincipal.getEmail(), jwtExpirationInMs);
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_USER_ID, userPrincipal.getId());
+        claims.put(CLAIM_USERNAME, userPrincipal.getUsername());
+        claims.put(CLAIM_NOM, userPrincipal.getNom());
+        claims.put(CLAIM_PRENOM, userPrincipal.getPrenom());
+        claims.put(CLAIM_STATUT, userPrincipal.getStatut() != null ? userPrincipal.getStatut().name() : null);
+        claims.put(CLAIM_SECURITY_VERSION, userPrincipal.getSecurityVersion());
+        claims.put(CLAIM_PERMISSIONS, userPrincipal.getPermissions());
+        claims.put(CLAIM_ROLES, userPrincipal.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toList()));
+        return generateToken(userPrincipal.getEmail(), jwtExpirationInMs, claims);
     }
 
-    public String generateRefreshToken(UserPrincipal userPrincipal) {
-        log.debug("Génération du token de rafraîchissement pour l'utilisateur: {}", userPrincipal.getEmail());
-        return generateToken(userPrincipal.getEmail(), refreshTokenExpirationInMs);
+    private String generateToken(String subject, long expiration) {
+        return generateToken(subject, expiration, Map.of());
     }
 
-    private String generateToken(String subject, long expiration) {
+    private String generateToken(String subject, long expiration, Map<String, Object> claims) {
         log.debug("Génération du token pour le sujet: {} avec expiration: {}", subject, expiration);
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + expiration);
 
-        return Jwts.builder()
+        return sign(Jwts.builder()
+                .claims(claims)
                 .subject(subject)
+                .id(UUID.randomUUID().toString())
                 .issuedAt(now)
-                .expiration(expiryDate)
-                .signWith(getSigningKey())
-                .compact();
+                .expiration(expiryDate));
     }
 
-    public String getEmailFromJWT(String token) {
-        log.debug("Extraction de l'email du token");
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-
-        return claims.getSubject();
+    /**
+     * Vérifie la signature et l'expiration du token une seule fois.
+     * Lève une {@link JwtException} si le token est invalide.
+     */
+    public VerifiedToken parse(String token) {
+        return new VerifiedToken(jwtParser.parseSignedClaims(token).getPayload());
     }
 
-    public boolean validateToken(String authToken) {
+    public Optional<VerifiedToken> verify(String authToken) {
         log.debug("Validation du token");
         try {
-            Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(authToken);
-            return true;
+            return Optional.of(parse(authToken));
         } catch (SecurityException ex) {
             log.error("Signature JWT invalide");
         } catch (MalformedJwtException ex) {
@@ -107,31 +152,67 @@ public class JwtTokenProvider {
             log.error("Token JWT non supporté");
         } catch (IllegalArgumentException ex) {
             log.error("Claims JWT vides");
+        } catch (JwtException ex) {
+            log.error("Token JWT invalide: {}", ex.getMessage());
         }
-        return false;
+        return Optional.empty();
     }
 
-    public boolean isTokenExpired(String token) {
-        try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-            return claims.getExpiration().before(new Date());
-        } catch (Exception e) {
-            log.error("Erreur lors de la vérification de l'expiration du token", e);
-            return true;
+    /**
+     * Reconstruit le principal à partir des claims d'un token d'accès, sans accès
+     * à la base. Retourne {@code null} pour les tokens émis sans ces claims.
+     */
+    public UserPrincipal toPrincipal(VerifiedToken token) {
+        Number userId = token.getClaim(CLAIM_USER_ID, Number.class);
+        String username = token.getClaim(CLAIM_USERNAME, String.class);
+        String statut = token.getClaim(CLAIM_STATUT, String.class);
+        Number securityVersion = token.getClaim(CLAIM_SECURITY_VERSION, Number.class);
+        Number permissions = token.getClaim(CLAIM_PERMISSIONS, Number.class);
+        List<?> roles = token.getClaim(CLAIM_ROLES, List.class);
+        if (userId == null || username == null || statut == null || securityVersion == null
+                || permissions == null || roles == null) {
+            return null;
+        }
+
+        List<GrantedAuthority> authorities = new ArrayList<>(roles.size());
+        for (Object role : roles) {
+            authorities.add(UserPrincipal.authority(String.valueOf(role)));
         }
+
+        return UserPrincipal.builder()
+                .id(userId.longValue())
+                .username(username)
+                .email(token.getSubject())
+                .nom(token.getClaim(CLAIM_NOM, String.class))
+                .prenom(token.getClaim(CLAIM_PRENOM, String.class))
+                .statut(StatutUtilisateur.valueOf(statut))
+                .securityVersion(securityVersion.longValue())
+                .permissions(permissions.longValue())
+                .authorities(authorities)
+                .build();
+    }
+
+    public String getUsernameClaim(VerifiedToken token) {
+        String username = token.getClaim(CLAIM_USERNAME, String.class);
+        return username != null ? username : token.getSubject();
+    }
+
+    public String getEmailFromJWT(String token) {
+        log.debug("Extraction de l'email du token");
+        return parse(token).getSubject();
+    }
+
+    public boolean validateToken(String authToken) {
+        return verify(authToken).isPresent();
+    }
+
+    public boolean isTokenExpired(String token) {
+        // Un token expiré échoue déjà à la vérification
+        return verify(token).map(VerifiedToken::isExpired).orElse(true);
     }
 
     public Date getExpirationDateFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return claims.getExpiration();
+        return parse(token).getExpiration();
     }
 
     public long getJwtExpiration() {
@@ -152,21 +233,15 @@ public class JwtTokenProvider {
         claims.put(CLAIM_NOM, userPrincipal.getNom());
         claims.put(CLAIM_PRENOM, userPrincipal.getPrenom());
 
-        return Jwts.builder()
+        return sign(Jwts.builder()
                 .subject(userPrincipal.getUsername())
                 .claims(claims)
+                .id(UUID.randomUUID().toString())
                 .issuedAt(now)
-                .expiration(expiryDate)
-                .signWith(getSigningKey())
-                .compact();
+                .expiration(expiryDate));
     }
 
     public String getUsernameFromToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload()
-                .getSubject();
+        return parse(token).getSubject();
     }
 }
\ No newline at end of file
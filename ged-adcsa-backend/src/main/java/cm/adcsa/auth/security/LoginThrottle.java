@@ -0,0 +1,150 @@
+package cm.adcsa.auth.security;
+
+import cm.adcsa.auth.exception.TooManyLoginAttemptsException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limitation des tentatives de connexion par nom d'utilisateur et par adresse IP, sur
+ * une fenêtre glissante. Consultée avant tout hachage : une requête limitée ne coûte
+ * aucun calcul BCrypt. Les compteurs sont portés par le {@link ClusterCoordinator} et
+ * donc partagés entre les instances ; ils expirent d'eux-mêmes. Si le coordinateur
+ * est indisponible, les compteurs sont tenus localement en attendant son retour :
+ * la limite ne vaut alors que par instance, mais les connexions restent possibles.
+ */
+@Component
+@Slf4j
+public class LoginThrottle implements MeterBinder {
+
+    private final ClusterCoordinator coordinator;
+    private final ClusterCoordinator fallback;
+    private final int maxAttemptsPerUsername;
+    private final int maxAttemptsPerIp;
+    private final long windowMillis;
+    // Un compteur est conservé deux fenêtres : au-delà, il ne pèse plus dans l'estimation
+    private final Duration counterTtl;
+    private final LongAdder rejected = new LongAdder();
+
+    public LoginThrottle(ClusterCoordinator coordinator,
+                         @Value("${app.security.max-login-attempts}") int maxAttemptsPerUsername,
+                         @Value("${app.security.login-throttle.ip-max-attempts:50}") int maxAttemptsPerIp,
+                         @Value("${app.security.login-throttle.window:PT15M}") Duration window,
+                         @Value("${app.coordination.memory.max-keys:100000}") int fallbackMaxKeys,
+                         @Value("${app.coordination.memory.segments:16}") int fallbackSegments) {
+        this.coordinator = coordinator;
+        this.fallback = new InMemoryClusterCoordinator(fallbackMaxKeys, fallbackSegments);
+        this.maxAttemptsPerUsername = maxAttemptsPerUsername;
+        this.maxAttemptsPerIp = maxAttemptsPerIp;
+        this.windowMillis = window.toMillis();
+        this.counterTtl = window.multipliedBy(2);
+    }
+
+    public void checkAllowed(String username, String ip) {
+        long now = System.currentTimeMillis();
+        long window = now / windowMillis;
+        String user = normalize(username);
+        // Un seul aller-retour pour les quatre compteurs (fenêtres précédente et courante)
+        long[] counts = ip != null
+                ? getCounters(userKey(user, window - 1), userKey(user, window),
+                        ipKey(ip, window - 1), ipKey(ip, window))
+                : getCounters(userKey(user, window - 1), userKey(user, window));
+        if (weighted(counts[0], counts[1], now) >= maxAttemptsPerUsername) {
+            reject("nom d'utilisateur", username, now);
+        }
+        if (ip != null && weighted(counts[2], counts[3], now) >= maxAttemptsPerIp) {
+            reject("adresse IP", ip, now);
+        }
+    }
+
+    /**
+     * Enregistre un échec et renvoie le nombre d'échecs récents pour ce nom d'utilisateur.
+     */
+    public int recordFailure(String username, String ip) {
+        long now = System.currentTimeMillis();
+        long window = now / windowMillis;
+        String user = normalize(username);
+        if (ip != null) {
+            increment(ipKey(ip, window));
+        }
+        long current = increment(userKey(user, window));
+        long previous = getCounters(userKey(user, window - 1))[0];
+        return (int) Math.ceil(weighted(previous, current, now));
+    }
+
+    public void recordSuccess(String username) {
+        long window = System.currentTimeMillis() / windowMillis;
+        String user = normalize(username);
+        String[] keys = {userKey(user, window - 1), userKey(user, window)};
+        fallback.delete(keys);
+        try {
+            coordinator.delete(keys);
+        } catch (DataAccessException e) {
+            log.warn("Coordinateur indisponible, compteurs de connexion non réinitialisés: {}", e.getMessage());
+        }
+    }
+
+    public boolean isLockoutThreshold(int failures) {
+        return failures >= maxAttemptsPerUsername;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("auth.login.throttled", rejected, LongAdder::sum)
+                .register(registry);
+    }
+
+    /**
+     * Fenêtre glissante approchée par deux fenêtres fixes : le compte de la fenêtre
+     * précédente est pondéré par la part de celle-ci encore couverte.
+     */
+    private double weighted(long previous, long current, long now) {
+        double elapsed = (double) (now % windowMillis) / windowMillis;
+        return previous * (1 - elapsed) + current;
+    }
+
+    private long[] getCounters(String... keys) {
+        try {
+            return coordinator.getCounters(keys);
+        } catch (DataAccessException e) {
+            log.warn("Coordinateur indisponible, compteurs de connexion locaux utilisés: {}", e.getMessage());
+            return fallback.getCounters(keys);
+        }
+    }
+
+    private long increment(String key) {
+        try {
+            return coordinator.increment(key, counterTtl);
+        } catch (DataAccessException e) {
+            log.warn("Coordinateur indisponible, compteurs de connexion locaux utilisés: {}", e.getMessage());
+            return fallback.increment(key, counterTtl);
+        }
+    }
+
+    private void reject(String kind, String key, long now) {
+        rejected.increment();
+        log.warn("Trop de tentatives de connexion pour {} {}", kind, key);
+        throw new TooManyLoginAttemptsException("Trop de tentatives de connexion, veuillez réessayer plus tard",
+                Math.max(1, (windowMillis - now % windowMillis) / 1000));
+    }
+
+    private static String userKey(String username, long window) {
+        return "login:user:" + username + ":" + window;
+    }
+
+    private static String ipKey(String ip, long window) {
+        return "login:ip:" + ip + ":" + window;
+    }
+
+    private static String normalize(String username) {
+        return username == null ? "" : username.trim().toLowerCase(Locale.ROOT);
+    }
+}
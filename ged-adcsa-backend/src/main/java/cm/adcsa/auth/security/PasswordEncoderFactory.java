@@ -0,0 +1,214 @@
+package cm.adcsa.auth.security;
+
+import cm.adcsa.auth.entity.PasswordHashCalibration;
+import cm.adcsa.auth.repository.PasswordHashCalibrationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Construit l'encodeur de mots de passe du déploiement. Quand la calibration est
+ * active, le coût est choisi au démarrage pour approcher la latence cible sur le
+ * matériel courant, sans jamais descendre sous les minimums configurés. La calibration
+ * est faite une fois pour le cluster et conservée en base : toutes les instances
+ * hachent avec les mêmes paramètres, quel que soit leur matériel.
+ */
+@Component
+@Slf4j
+public class PasswordEncoderFactory {
+
+    private static final int SALT_LENGTH = 16;
+    private static final int HASH_LENGTH = 32;
+    private static final int BCRYPT_MAX_COST = 16;
+    private static final int CALIBRATION_RUNS = 3;
+    private static final String CALIBRATION_PASSWORD = "calibration-Adcsa@2024";
+
+    private final PasswordHashCalibrationRepository calibrationRepository;
+    private final String algorithm;
+    private final boolean calibrate;
+    private final Duration targetLatency;
+    private final int bcryptCost;
+    private final int bcryptMinCost;
+    private final int argon2MemoryKib;
+    private final int argon2Parallelism;
+    private final int argon2Iterations;
+    private final int pbkdf2Iterations;
+
+    public PasswordEncoderFactory(PasswordHashCalibrationRepository calibrationRepository,
+                                  @Value("${app.security.password-hash.algorithm:bcrypt}") String algorithm,
+                                  @Value("${app.security.password-hash.calibrate:true}") boolean calibrate,
+                                  @Value("${app.security.password-hash.target-latency:PT0.1S}") Duration targetLatency,
+                                  @Value("${app.security.password-hash.bcrypt.cost:12}") int bcryptCost,
+                                  @Value("${app.security.password-hash.bcrypt.min-cost:10}") int bcryptMinCost,
+                                  @Value("${app.security.password-hash.argon2.memory-kib:19456}") int argon2MemoryKib,
+                                  @Value("${app.security.password-hash.argon2.parallelism:1}") int argon2Parallelism,
+                                  @Value("${app.security.password-hash.argon2.iterations:2}") int argon2Iterations,
+                                  @Value("${app.security.password-hash.pbkdf2.iterations:600000}") int pbkdf2Iterations) {
+        this.calibrationRepository = calibrationRepository;
+        this.algorithm = algorithm;
+        this.calibrate = calibrate;
+        this.targetLatency = targetLatency;
+        this.bcryptCost = bcryptCost;
+        this.bcryptMinCost = bcryptMinCost;
+        this.argon2MemoryKib = argon2MemoryKib;
+        this.argon2Parallelism = argon2Parallelism;
+        this.argon2Iterations = argon2Iterations;
+        this.pbkdf2Iterations = pbkdf2Iterations;
+    }
+
+    public AdaptivePasswordEncoder create() {
+        PasswordHashParameters parameters = PasswordHashParameters.builder()
+                .algorithm(algorithm)
+                .bcryptCost(bcryptCost)
+                .argon2MemoryKib(argon2MemoryKib)
+                .argon2Parallelism(argon2Parallelism)
+                .argon2Iterations(argon2Iterations)
+                .pbkdf2Iterations(pbkdf2Iterations)
+                .build();
+        if (calibrate) {
+            parameters = sharedCalibration(parameters);
+        }
+
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put(PasswordHashParameters.BCRYPT, bcrypt(parameters.getBcryptCost()));
+        encoders.put(PasswordHashParameters.ARGON2, argon2(parameters.getArgon2MemoryKib(),
+                parameters.getArgon2Iterations(), parameters.getArgon2Parallelism()));
+        // {pbkdf2} : hashes enregistrés avant que l'identifiant ne porte le nombre d'itérations
+        encoders.put(PasswordHashParameters.PBKDF2, pbkdf2(parameters.getPbkdf2Iterations()));
+        if (!encoders.containsKey(algorithm)) {
+            throw new IllegalArgumentException("Algorithme de hachage non supporté: " + algorithm);
+        }
+        String idForEncode = algorithm;
+        if (PasswordHashParameters.PBKDF2.equals(algorithm)) {
+            idForEncode = AdaptivePasswordEncoder.pbkdf2Id(parameters.getPbkdf2Iterations());
+            encoders.put(idForEncode, encoders.get(PasswordHashParameters.PBKDF2));
+        }
+
+        log.info("Hachage des mots de passe: {} (bcrypt coût={}, argon2 m={}KiB t={} p={}, pbkdf2 itérations={})",
+                algorithm, parameters.getBcryptCost(), parameters.getArgon2MemoryKib(),
+                parameters.getArgon2Iterations(), parameters.getArgon2Parallelism(), parameters.getPbkdf2Iterations());
+        // Les hashes historiques sans préfixe {id} sont des hashes BCrypt
+        return new AdaptivePasswordEncoder(idForEncode, encoders, new BCryptPasswordEncoder(), parameters,
+                PasswordEncoderFactory::pbkdf2);
+    }
+
+    /**
+     * Paramètres calibrés communs au cluster. Des paramètres propres à chaque instance
+     * feraient ré-encoder le mot de passe à chaque connexion servie par une instance
+     * différente. La calibration enregistrée est reprise tant qu'elle respecte les
+     * minimums configurés ; sinon l'instance recalibre et la remplace.
+     */
+    private PasswordHashParameters sharedCalibration(PasswordHashParameters configured) {
+        Optional<PasswordHashCalibration> stored = calibrationRepository.findById(algorithm);
+        if (stored.isPresent() && meetsMinimums(stored.get())) {
+            log.debug("Paramètres de hachage repris de la calibration du {}", stored.get().getCalibratedAt());
+            return withCalibration(configured, stored.get());
+        }
+        PasswordHashParameters calibrated = calibrate(configured);
+        try {
+            calibrationRepository.saveAndFlush(PasswordHashCalibration.builder()
+                    .algorithm(algorithm)
+                    .bcryptCost(calibrated.getBcryptCost())
+                    .argon2MemoryKib(calibrated.getArgon2MemoryKib())
+                    .argon2Iterations(calibrated.getArgon2Iterations())
+                    .argon2Parallelism(calibrated.getArgon2Parallelism())
+                    .pbkdf2Iterations(calibrated.getPbkdf2Iterations())
+                    .calibratedAt(LocalDateTime.now())
+                    .build());
+            return calibrated;
+        } catch (DataIntegrityViolationException e) {
+            // Instance démarrée en même temps : sa calibration, enregistrée la première, fait foi
+            return calibrationRepository.findById(algorithm)
+                    .map(calibration -> withCalibration(configured, calibration))
+                    .orElse(calibrated);
+        }
+    }
+
+    private boolean meetsMinimums(PasswordHashCalibration calibration) {
+        return calibration.getBcryptCost() >= bcryptMinCost
+                && calibration.getArgon2MemoryKib() >= argon2MemoryKib
+                && calibration.getArgon2Iterations() >= argon2Iterations
+                && calibration.getPbkdf2Iterations() >= pbkdf2Iterations;
+    }
+
+    private static PasswordHashParameters withCalibration(PasswordHashParameters configured,
+                                                          PasswordHashCalibration calibration) {
+        return configured.toBuilder()
+                .bcryptCost(calibration.getBcryptCost())
+                .argon2MemoryKib(calibration.getArgon2MemoryKib())
+                .argon2Iterations(calibration.getArgon2Iterations())
+                .argon2Parallelism(calibration.getArgon2Parallelism())
+                .pbkdf2Iterations(calibration.getPbkdf2Iterations())
+                .build();
+    }
+
+    private PasswordHashParameters calibrate(PasswordHashParameters parameters) {
+        long targetNanos = targetLatency.toNanos();
+        switch (algorithm) {
+            case PasswordHashParameters.BCRYPT: {
+                // Chaque unité de coût double le temps de calcul
+                long measured = measure(bcrypt(bcryptMinCost));
+                int extra = (int) Math.floor(Math.log((double) targetNanos / measured) / Math.log(2));
+                int cost = Math.min(BCRYPT_MAX_COST, bcryptMinCost + Math.max(0, extra));
+                log.debug("Calibration BCrypt: {} µs au coût {}, coût retenu {}", measured / 1000, bcryptMinCost, cost);
+                if (cost < bcryptCost) {
+                    log.warn("Calibration BCrypt: coût {} retenu, inférieur au coût configuré {} ; les hashes "
+                            + "existants plus coûteux sont conservés", cost, bcryptCost);
+                }
+                return parameters.toBuilder().bcryptCost(cost).build();
+            }
+            case PasswordHashParameters.ARGON2: {
+                // Le temps de calcul est proportionnel au nombre de passes
+                long measured = measure(argon2(argon2MemoryKib, argon2Iterations, argon2Parallelism));
+                int iterations = Math.max(argon2Iterations, (int) (argon2Iterations * targetNanos / measured));
+                log.debug("Calibration Argon2: {} µs pour t={}, t retenu {}", measured / 1000, argon2Iterations, iterations);
+                return parameters.toBuilder().argon2Iterations(iterations).build();
+            }
+            case PasswordHashParameters.PBKDF2: {
+                long measured = measure(pbkdf2(pbkdf2Iterations));
+                int iterations = (int) Math.min(Integer.MAX_VALUE,
+                        Math.max(pbkdf2Iterations, pbkdf2Iterations * targetNanos / measured));
+                log.debug("Calibration PBKDF2: {} µs pour {} itérations, {} retenues", measured / 1000, pbkdf2Iterations, iterations);
+                return parameters.toBuilder().pbkdf2Iterations(iterations).build();
+            }
+            default:
+                return parameters;
+        }
+    }
+
+    // Meilleur temps sur quelques essais, après un premier appel de chauffe
+    private static long measure(PasswordEncoder encoder) {
+        encoder.encode(CALIBRATION_PASSWORD);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < CALIBRATION_RUNS; i++) {
+            long start = System.nanoTime();
+            encoder.encode(CALIBRATION_PASSWORD);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return Math.max(1, best);
+    }
+
+    private static PasswordEncoder bcrypt(int cost) {
+        return new BCryptPasswordEncoder(cost);
+    }
+
+    private static PasswordEncoder argon2(int memoryKib, int iterations, int parallelism) {
+        return new Argon2PasswordEncoder(SALT_LENGTH, HASH_LENGTH, parallelism, memoryKib, iterations);
+    }
+
+    private static PasswordEncoder pbkdf2(int iterations) {
+        return new Pbkdf2PasswordEncoder("", SALT_LENGTH, iterations,
+                Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256);
+    }
+}
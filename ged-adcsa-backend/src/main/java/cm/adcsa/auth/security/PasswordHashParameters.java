@@ -0,0 +1,23 @@
+package cm.adcsa.auth.security;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Paramètres de hachage retenus pour ce déploiement (configurés ou calibrés au démarrage).
+ */
+@Getter
+@Builder(toBuilder = true)
+public final class PasswordHashParameters {
+
+    public static final String BCRYPT = "bcrypt";
+    public static final String ARGON2 = "argon2";
+    public static final String PBKDF2 = "pbkdf2";
+
+    private final String algorithm;
+    private final int bcryptCost;
+    private final int argon2MemoryKib;
+    private final int argon2Iterations;
+    private final int argon2Parallelism;
+    private final int pbkdf2Iterations;
+}
@@ -0,0 +1,175 @@
+package cm.adcsa.auth.security;
+
+import cm.adcsa.auth.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool borné, dimensionné sur le nombre de cœurs, où s'exécutent tous les calculs de
+ * hachage de mots de passe. Les threads Tomcat n'y attendent qu'un temps limité : si
+ * la file est pleine, la requête est refusée immédiatement (503 + Retry-After).
+ */
+@Component
+@Slf4j
+public class PasswordHashingExecutor implements MeterBinder {
+
+    private final ThreadPoolExecutor executor;
+    private final Duration maxWait;
+    private final long retryAfterSeconds;
+    private final LongAdder rejected = new LongAdder();
+    private volatile Timer waitTimer;
+
+    public PasswordHashingExecutor(@Value("${app.security.password-hash.executor.threads:0}") int threads,
+                                   @Value("${app.security.password-hash.executor.queue-capacity:64}") int queueCapacity,
+                                   @Value("${app.security.password-hash.executor.max-wait:PT5S}") Duration maxWait,
+                                   @Value("${app.security.password-hash.executor.retry-after-seconds:2}") long retryAfterSeconds) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        this.maxWait = maxWait;
+        this.retryAfterSeconds = retryAfterSeconds;
+        log.info("Pool de hachage des mots de passe: {} thread(s), file de {} tâche(s)", poolSize, queueCapacity);
+    }
+
+    public <T> T execute(Callable<T> task) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                Timer timer = waitTimer;
+                if (timer != null) {
+                    timer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                }
+                return task.call();
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw overloaded();
+        }
+
+        try {
+            return future.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw overloaded();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Hachage du mot de passe interrompu", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Erreur lors du hachage du mot de passe", cause);
+        }
+    }
+
+    /**
+     * Exécution d'un lot (import en masse) : au plus {@code maxInFlight} tâches sont
+     * confiées au pool à la fois, pour laisser la file aux connexions. Si la file est
+     * pleine, la tâche s'exécute sur le thread appelant.
+     */
+    public <T> List<T> invokeAll(List<Callable<T>> tasks, int maxInFlight) {
+        Semaphore permits = new Semaphore(Math.max(1, maxInFlight));
+        List<Future<T>> futures = new ArrayList<>(tasks.size());
+        try {
+            for (Callable<T> task : tasks) {
+                permits.acquire();
+                Callable<T> released = () -> {
+                    try {
+                        return task.call();
+                    } finally {
+                        permits.release();
+                    }
+                };
+                try {
+                    futures.add(executor.submit(released));
+                } catch (RejectedExecutionException e) {
+                    FutureTask<T> inline = new FutureTask<>(released);
+                    inline.run();
+                    futures.add(inline);
+                }
+            }
+            List<T> results = new ArrayList<>(futures.size());
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Hachage des mots de passe interrompu", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Erreur lors du hachage des mots de passe", cause);
+        }
+    }
+
+    public int getPoolSize() {
+        return executor.getCorePoolSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("auth.password.hashing.queue", executor, e -> e.getQueue().size())
+                .description("Tâches de hachage en attente")
+                .register(registry);
+        Gauge.builder("auth.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(registry);
+        FunctionCounter.builder("auth.password.hashing.rejected", rejected, LongAdder::sum)
+                .register(registry);
+        waitTimer = Timer.builder("auth.password.hashing.wait")
+                .description("Temps d'attente dans la file avant hachage")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    private ServiceOverloadedException overloaded() {
+        log.warn("Pool de hachage saturé ({} tâche(s) en attente), requête refusée", executor.getQueue().size());
+        return new ServiceOverloadedException("Service temporairement surchargé, veuillez réessayer", retryAfterSeconds);
+    }
+
+    private static ThreadFactory threadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "password-hash-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
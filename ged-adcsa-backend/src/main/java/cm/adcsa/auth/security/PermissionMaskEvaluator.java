@@ -0,0 +1,43 @@
+package cm.adcsa.auth.security;
+
+import cm.adcsa.auth.enums.Permission;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.access.PermissionEvaluator;
+import org.springframework.security.core.Authentication;
+
+import java.io.Serializable;
+
+/**
+ * Évalue {@code hasPermission(...)} par un simple test de bit sur le masque du
+ * principal, déjà présent dans le token : aucune requête, aucune comparaison de chaînes
+ * sur les autorités. Les permissions ne dépendent pas de l'objet ciblé.
+ */
+@Slf4j
+public class PermissionMaskEvaluator implements PermissionEvaluator {
+
+    @Override
+    public boolean hasPermission(Authentication authentication, Object targetDomainObject, Object permission) {
+        return authentication != null
+                && authentication.getPrincipal() instanceof UserPrincipal principal
+                && isGranted(principal.getPermissions(), permission);
+    }
+
+    @Override
+    public boolean hasPermission(Authentication authentication, Serializable targetId, String targetType, Object permission) {
+        return hasPermission(authentication, null, permission);
+    }
+
+    private static boolean isGranted(long permissions, Object permission) {
+        if (permission instanceof Permission p) {
+            return p.isGrantedBy(permissions);
+        }
+        if (permission instanceof String name) {
+            try {
+                return Permission.valueOf(name).isGrantedBy(permissions);
+            } catch (IllegalArgumentException e) {
+                log.error("Permission inconnue dans une règle d'autorisation: {}", name);
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,69 @@
+package cm.adcsa.auth.security;
+
+import cm.adcsa.auth.enums.Permission;
+import cm.adcsa.auth.repository.RoleRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Masque de permissions de chaque rôle, indexé par autorité ({@code ROLE_<nom>}) pour
+ * que le calcul du masque d'un principal ne fasse ni requête ni allocation. Rechargé sur
+ * toutes les instances après chaque modification des permissions, et périodiquement.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class PermissionRegistry {
+
+    private static final String CHANNEL = "permissions-changed";
+
+    private final RoleRepository roleRepository;
+    private final ClusterCoordinator coordinator;
+
+    private volatile Map<String, Long> masksByAuthority = Map.of();
+
+    @PostConstruct
+    void init() {
+        reload();
+        coordinator.subscribe(CHANNEL, message -> reload());
+    }
+
+    /**
+     * Recharge les masques sur cette instance et demande aux autres d'en faire autant.
+     */
+    public void reloadAll() {
+        reload();
+        coordinator.publish(CHANNEL, "");
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.permissions.reload-interval:300000}",
+               initialDelayString = "${app.security.permissions.reload-interval:300000}")
+    public void reload() {
+        Map<String, Long> masks = new HashMap<>();
+        for (Object[] row : roleRepository.findRolePermissions()) {
+            masks.merge("ROLE_" + row[0], ((Permission) row[1]).getMask(), (a, b) -> a | b);
+        }
+        masksByAuthority = Map.copyOf(masks);
+        log.debug("Masques de permissions chargés pour {} rôle(s)", masks.size());
+    }
+
+    public long maskOf(Collection<? extends GrantedAuthority> authorities) {
+        Map<String, Long> masks = masksByAuthority;
+        long mask = 0L;
+        for (GrantedAuthority authority : authorities) {
+            Long roleMask = masks.get(authority.getAuthority());
+            if (roleMask != null) {
+                mask |= roleMask;
+            }
+        }
+        return mask;
+    }
+}
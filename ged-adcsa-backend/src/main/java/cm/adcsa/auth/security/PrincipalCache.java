@@ -0,0 +1,146 @@
+package cm.adcsa.auth.security;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Principaux chargés depuis la base, indexés par nom d'utilisateur, pour que la
+ * reconstruction du principal hors mode sans état ne lise pas la base à chaque requête.
+ * Les entrées sont des instantanés (sans mot de passe) jamais exposés : chaque lecture
+ * renvoie une copie, que l'appelant peut modifier sans effet sur le cache. Une entrée
+ * est évincée après validation de toute transaction qui publie un
+ * {@link PrincipalChangedEvent}, sur cette instance puis sur les autres via le
+ * {@link ClusterCoordinator}, et n'est jamais servie si sa version de sécurité est
+ * dépassée ; la durée de vie borne les autres cas.
+ */
+@Component
+@Slf4j
+public class PrincipalCache implements MeterBinder {
+
+    private static final String CHANNEL = "principal-changed";
+
+    private final boolean enabled;
+    private final long ttlMillis;
+    private final StripedLruCache<String, UserPrincipal> cache;
+    private final SecurityVersionRegistry securityVersionRegistry;
+    private final ClusterCoordinator coordinator;
+
+    public PrincipalCache(@Value("${app.security.principal-cache.enabled:true}") boolean enabled,
+                          @Value("${app.security.principal-cache.max-size:10000}") int maxSize,
+                          @Value("${app.security.principal-cache.segments:16}") int segments,
+                          @Value("${app.security.principal-cache.ttl:PT5M}") Duration ttl,
+                          SecurityVersionRegistry securityVersionRegistry,
+                          ClusterCoordinator coordinator) {
+        this.enabled = enabled;
+        this.ttlMillis = ttl.toMillis();
+        this.cache = new StripedLruCache<>(maxSize, segments);
+        this.securityVersionRegistry = securityVersionRegistry;
+        this.coordinator = coordinator;
+        log.debug("Cache des principaux: actif={}, taille max={}, durée de vie={}", enabled, maxSize, ttl);
+    }
+
+    public UserPrincipal get(String username) {
+        if (!enabled) {
+            return null;
+        }
+        UserPrincipal principal = cache.get(username);
+        if (principal != null && !securityVersionRegistry.isCurrent(principal.getId(), principal.getSecurityVersion())) {
+            cache.invalidate(username);
+            return null;
+        }
+        return principal != null ? principal.toBuilder().build() : null;
+    }
+
+    /**
+     * Met en cache un instantané du principal et en renvoie une copie.
+     */
+    public UserPrincipal put(UserPrincipal principal) {
+        UserPrincipal snapshot = principal.toBuilder().password(null).build();
+        if (enabled) {
+            cache.put(snapshot.getUsername(), snapshot, System.currentTimeMillis() + ttlMillis);
+        }
+        return snapshot.toBuilder().build();
+    }
+
+    @PostConstruct
+    void subscribe() {
+        coordinator.subscribe(CHANNEL, this::onRemoteChange);
+    }
+
+    // Après validation : un rechargement concurrent ne peut pas remettre en cache l'état d'avant
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPrincipalChanged(PrincipalChangedEvent event) {
+        if (event.username() != null) {
+            cache.invalidate(event.username());
+            coordinator.publish(CHANNEL, "u:" + event.username());
+        }
+        if (!event.userIds().isEmpty()) {
+            evict(event.userIds());
+            coordinator.publish(CHANNEL, "i:" + event.userIds().stream()
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(",")));
+        }
+    }
+
+    // Message "u:<nom d'utilisateur>" ou "i:<id>[,<id>...]"
+    private void onRemoteChange(String message) {
+        if (message.startsWith("u:")) {
+            cache.invalidate(message.substring(2));
+        } else if (message.startsWith("i:")) {
+            Set<Long> userIds = new HashSet<>();
+            for (String id : message.substring(2).split(",")) {
+                userIds.add(Long.valueOf(id));
+            }
+            evict(userIds);
+        }
+    }
+
+    private void evict(Set<Long> userIds) {
+        int removed = cache.invalidateIf(principal -> userIds.contains(principal.getId()));
+        log.debug("{} principal(aux) évincé(s) du cache", removed);
+    }
+
+    public long hitCount() {
+        return cache.hitCount();
+    }
+
+    public long missCount() {
+        return cache.missCount();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("auth.principal.cache.requests", cache, StripedLruCache::hitCount)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("auth.principal.cache.requests", cache, StripedLruCache::missCount)
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder("auth.principal.cache.hit.ratio", this, PrincipalCache::hitRatio)
+                .description("Part des chargements de principal servis par le cache")
+                .register(registry);
+        FunctionCounter.builder("auth.principal.cache.evictions", cache, StripedLruCache::evictionCount)
+                .register(registry);
+        Gauge.builder("auth.principal.cache.size", cache, StripedLruCache::size)
+                .register(registry);
+    }
+
+    private double hitRatio() {
+        long hits = cache.hitCount();
+        long total = hits + cache.missCount();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,24 @@
+package cm.adcsa.auth.security;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Publié à chaque modification qui rend obsolète le principal d'un ou plusieurs
+ * utilisateurs (profil, statut, rôles, mot de passe, verrouillage). Les utilisateurs
+ * sont désignés par identifiant, ou par nom d'utilisateur lorsque seul celui-ci est connu.
+ */
+public record PrincipalChangedEvent(Set<Long> userIds, String username) {
+
+    public static PrincipalChangedEvent ofUser(Long userId) {
+        return new PrincipalChangedEvent(Set.of(userId), null);
+    }
+
+    public static PrincipalChangedEvent ofUsers(Collection<Long> userIds) {
+        return new PrincipalChangedEvent(Set.copyOf(userIds), null);
+    }
+
+    public static PrincipalChangedEvent ofUsername(String username) {
+        return new PrincipalChangedEvent(Set.of(), username);
+    }
+}
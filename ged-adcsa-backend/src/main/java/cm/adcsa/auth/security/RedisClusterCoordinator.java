@@ -0,0 +1,98 @@
+package cm.adcsa.auth.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Coordination entre plusieurs instances via Redis : INCR et PEXPIRE dans un même
+ * script pour les compteurs, SET PX pour les clés à durée de vie, PUBLISH/SUBSCRIBE
+ * pour les invalidations. Toutes les clés et tous les canaux sont préfixés.
+ */
+@Slf4j
+public class RedisClusterCoordinator implements ClusterCoordinator {
+
+    // La durée de vie n'est posée qu'à la création, de façon atomique avec l'incrément
+    private static final RedisScript<Long> INCREMENT = new DefaultRedisScript<>(
+            "local v = redis.call('INCR', KEYS[1]) " +
+            "if v == 1 then redis.call('PEXPIRE', KEYS[1], ARGV[1]) end " +
+            "return v", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final String prefix;
+
+    public RedisClusterCoordinator(StringRedisTemplate redisTemplate,
+                                   RedisMessageListenerContainer listenerContainer,
+                                   String prefix) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.prefix = prefix;
+    }
+
+    @Override
+    public long increment(String key, Duration ttl) {
+        Long value = redisTemplate.execute(INCREMENT, List.of(prefix + key), String.valueOf(ttl.toMillis()));
+        return value != null ? value : 0L;
+    }
+
+    @Override
+    public long[] getCounters(String... keys) {
+        List<String> values = redisTemplate.opsForValue().multiGet(prefixed(keys));
+        long[] counters = new long[keys.length];
+        for (int i = 0; values != null && i < keys.length; i++) {
+            String value = values.get(i);
+            counters[i] = value != null ? Long.parseLong(value) : 0L;
+        }
+        return counters;
+    }
+
+    @Override
+    public void setValue(String key, String value, Duration ttl) {
+        redisTemplate.opsForValue().set(prefix + key, value, ttl);
+    }
+
+    @Override
+    public String getValue(String key) {
+        return redisTemplate.opsForValue().get(prefix + key);
+    }
+
+    @Override
+    public void delete(String... keys) {
+        redisTemplate.delete(prefixed(keys));
+    }
+
+    // Une invalidation perdue est rattrapée par la durée de vie des caches : l'échec n'interrompt pas la requête
+    @Override
+    public void publish(String channel, String message) {
+        try {
+            redisTemplate.convertAndSend(prefix + channel, message);
+        } catch (RuntimeException e) {
+            log.error("Échec de la publication sur le canal {}: {}", channel, e.getMessage());
+        }
+    }
+
+    @Override
+    public void subscribe(String channel, Consumer<String> listener) {
+        listenerContainer.addMessageListener((message, pattern) -> {
+            try {
+                listener.accept(new String(message.getBody(), StandardCharsets.UTF_8));
+            } catch (RuntimeException e) {
+                log.error("Échec du traitement d'un message sur le canal {}: {}", channel, e.getMessage());
+            }
+        }, new ChannelTopic(prefix + channel));
+    }
+
+    private List<String> prefixed(String... keys) {
+        return Arrays.stream(keys).map(key -> prefix + key).toList();
+    }
+}
@@ -0,0 +1,111 @@
+package cm.adcsa.auth.security;
+
+import cm.adcsa.auth.entity.RevokedUtilisateur;
+import cm.adcsa.auth.repository.RevokedUtilisateurRepository;
+import cm.adcsa.auth.repository.UtilisateurRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Versions de sécurité connues par utilisateur. Un token dont la version est
+ * inférieure à celle enregistrée ici ne peut plus servir à reconstruire le
+ * principal sans repasser par la base. Chaque nouvelle version est diffusée aux
+ * autres instances. Les suppressions sont aussi enregistrées en base, jusqu'à
+ * l'expiration des derniers tokens émis, pour survivre aux redémarrages.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class SecurityVersionRegistry {
+
+    private static final long REVOKED = Long.MAX_VALUE;
+    private static final String CHANNEL = "security-version";
+
+    private final UtilisateurRepository utilisateurRepository;
+    private final RevokedUtilisateurRepository revokedUtilisateurRepository;
+    private final ClusterCoordinator coordinator;
+
+    @Value("${app.jwt.expiration}")
+    private long jwtExpirationInMs;
+
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void load() {
+        for (Object[] row : utilisateurRepository.findSecurityVersions()) {
+            versions.put((Long) row[0], (Long) row[1]);
+        }
+        revokedUtilisateurRepository.findActiveIds(LocalDateTime.now()).forEach(id -> versions.put(id, REVOKED));
+        log.debug("{} versions de sécurité chargées", versions.size());
+        coordinator.subscribe(CHANNEL, this::onVersionsChanged);
+    }
+
+    public boolean isCurrent(Long userId, long tokenVersion) {
+        Long known = versions.get(userId);
+        return known == null || tokenVersion >= known;
+    }
+
+    public void record(Long userId, long version) {
+        versions.merge(userId, version, Math::max);
+        coordinator.publish(CHANNEL, userId + ":" + version);
+    }
+
+    /**
+     * Incrémente en base la version de sécurité des utilisateurs donnés et enregistre les
+     * nouvelles versions. Doit être appelé dans la transaction qui modifie leurs droits.
+     */
+    public void increment(Collection<Long> userIds) {
+        utilisateurRepository.incrementSecurityVersions(userIds);
+        StringBuilder message = new StringBuilder();
+        for (Object[] row : utilisateurRepository.findSecurityVersionsByIds(userIds)) {
+            versions.merge((Long) row[0], (Long) row[1], Math::max);
+            message.append(message.isEmpty() ? "" : ",").append(row[0]).append(':').append(row[1]);
+        }
+        if (!message.isEmpty()) {
+            coordinator.publish(CHANNEL, message.toString());
+        }
+    }
+
+    /**
+     * Révoque tous les tokens d'un utilisateur supprimé. Doit être appelé dans la
+     * transaction de suppression : la révocation est persistée avec elle.
+     */
+    public void revoke(Long userId) {
+        LocalDateTime now = LocalDateTime.now();
+        revokedUtilisateurRepository.save(RevokedUtilisateur.builder()
+                .utilisateurId(userId)
+                .expiresAt(now.plus(Duration.ofMillis(jwtExpirationInMs)))
+                .revokedAt(now)
+                .build());
+        versions.put(userId, REVOKED);
+        coordinator.publish(CHANNEL, userId + ":" + REVOKED);
+    }
+
+    // Les tokens des utilisateurs supprimés ont tous expiré : l'entrée en base n'est plus utile
+    @Scheduled(fixedDelayString = "${app.jwt.refresh-token.purge-interval:3600000}")
+    public void purgeExpiredRevocations() {
+        int purged = revokedUtilisateurRepository.deleteExpired(LocalDateTime.now());
+        if (purged > 0) {
+            log.debug("{} révocation(s) d'utilisateurs supprimés expirée(s) purgée(s)", purged);
+        }
+    }
+
+    // Message "id:version[,id:version...]" ; appliqué aussi par l'instance émettrice, sans effet
+    private void onVersionsChanged(String message) {
+        for (String entry : message.split(",")) {
+            int separator = entry.indexOf(':');
+            versions.merge(Long.valueOf(entry.substring(0, separator)),
+                    Long.valueOf(entry.substring(separator + 1)), Math::max);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package cm.adcsa.auth.security;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Cache LRU borné découpé en segments indépendants (un verrou par segment) pour
+ * limiter la contention. Chaque entrée porte sa propre date d'expiration.
+ */
+public class StripedLruCache<K, V> {
+
+    private final Segment<K, V>[] segments;
+    private final int mask;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    public StripedLruCache(int maxSize, int concurrencyLevel) {
+        int segmentCount = Integer.highestOneBit(Math.max(1, concurrencyLevel));
+        int perSegment = Math.max(1, maxSize / segmentCount);
+        this.segments = (Segment<K, V>[]) new Segment<?, ?>[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>(perSegment, evictions);
+        }
+        this.mask = segmentCount - 1;
+    }
+
+    public V get(K key) {
+        V value = segmentFor(key).get(key, System.currentTimeMillis());
+        if (value != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return value;
+    }
+
+    public void put(K key, V value, long expiresAtMillis) {
+        if (expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        segmentFor(key).put(key, value, expiresAtMillis);
+    }
+
+    /**
+     * Renvoie la valeur associée à la clé (créée si absente ou expirée) et repousse
+     * son expiration : une clé inactive finit ainsi par être évincée.
+     */
+    public V touch(K key, Function<? super K, ? extends V> factory, long expiresAtMillis) {
+        return segmentFor(key).touch(key, factory, System.currentTimeMillis(), expiresAtMillis);
+    }
+
+    /**
+     * Renvoie la valeur associée à la clé, créée si absente ou expirée. Contrairement à
+     * {@link #touch}, l'expiration n'est fixée qu'à la création de l'entrée.
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> factory, long expiresAtMillis) {
+        return segmentFor(key).computeIfAbsent(key, factory, System.currentTimeMillis(), expiresAtMillis);
+    }
+
+    public void invalidate(K key) {
+        segmentFor(key).remove(key);
+    }
+
+    public int invalidateIf(Predicate<V> predicate) {
+        int removed = 0;
+        for (Segment<K, V> segment : segments) {
+            removed += segment.removeIf(predicate);
+        }
+        return removed;
+    }
+
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    public long size() {
+        long size = 0;
+        for (Segment<K, V> segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return segments[h & mask];
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class Segment<K, V> {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final LinkedHashMap<K, Entry<V>> map;
+
+        private Segment(int capacity, LongAdder evictions) {
+            this.map = new LinkedHashMap<>(Math.min(capacity, 1024), 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        private V get(K key, long now) {
+            lock.lock();
+            try {
+                Entry<V> entry = map.get(key);
+                if (entry == null) {
+                    return null;
+                }
+                if (entry.expiresAt <= now) {
+                    map.remove(key);
+                    return null;
+                }
+                return entry.value;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void put(K key, V value, long expiresAt) {
+            lock.lock();
+            try {
+                map.put(key, new Entry<>(value, expiresAt));
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private V touch(K key, Function<? super K, ? extends V> factory, long now, long expiresAt) {
+            lock.lock();
+            try {
+                Entry<V> entry = map.get(key);
+                V value = entry != null && entry.expiresAt > now ? entry.value : factory.apply(key);
+                map.put(key, new Entry<>(value, expiresAt));
+                return value;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private V computeIfAbsent(K key, Function<? super K, ? extends V> factory, long now, long expiresAt) {
+            lock.lock();
+            try {
+                Entry<V> entry = map.get(key);
+                if (entry != null && entry.expiresAt > now) {
+                    return entry.value;
+                }
+                V value = factory.apply(key);
+                map.put(key, new Entry<>(value, expiresAt));
+                return value;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void remove(K key) {
+            lock.lock();
+            try {
+                map.remove(key);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int removeIf(Predicate<V> predicate) {
+            lock.lock();
+            try {
+                int removed = 0;
+                Iterator<Entry<V>> it = map.values().iterator();
+                while (it.hasNext()) {
+                    if (predicate.test(it.next().value)) {
+                        it.remove();
+                        removed++;
+                    }
+                }
+                return removed;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void clear() {
+            lock.lock();
+            try {
+                map.clear();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int size() {
+            lock.lock();
+            try {
+                return map.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package cm.adcsa.auth.security;
+
+import cm.adcsa.auth.entity.RevokedToken;
+import cm.adcsa.auth.repository.RevokedTokenRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Liste de révocation des tokens d'accès (par jti). Un filtre de Bloom en mémoire
+ * répond au cas courant (token non révoqué) sans requête ; seule une réponse
+ * positive du filtre est confirmée en base.
+ */
+@Component
+@Slf4j
+public class TokenRevocationService {
+
+    private static final String CHANNEL = "token-revoked";
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final ClusterCoordinator coordinator;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+
+    private volatile BloomFilter filter;
+    // Filtre en cours de reconstruction : les révocations concurrentes y sont aussi ajoutées
+    private volatile BloomFilter rebuilding;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  ClusterCoordinator coordinator,
+                                  @Value("${app.jwt.revocation.expected-insertions:100000}") long expectedInsertions,
+                                  @Value("${app.jwt.revocation.false-positive-rate:0.001}") double falsePositiveRate) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.coordinator = coordinator;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedInsertions, falsePositiveRate);
+    }
+
+    @PostConstruct
+    void init() {
+        rebuild();
+        coordinator.subscribe(CHANNEL, this::markRevoked);
+    }
+
+    public void revoke(VerifiedToken token, Long utilisateurId) {
+        String jti = token.getId();
+        if (jti == null) {
+            return;
+        }
+        revokedTokenRepository.save(RevokedToken.builder()
+                .jti(jti)
+                .utilisateurId(utilisateurId)
+                .expiresAt(LocalDateTime.ofInstant(token.getExpiration().toInstant(), ZoneId.systemDefault()))
+                .revokedAt(LocalDateTime.now())
+                .build());
+        markRevoked(jti);
+        // Les autres instances ajoutent le jti à leur filtre sans attendre la reconstruction
+        coordinator.publish(CHANNEL, jti);
+        log.debug("Token {} révoqué", jti);
+    }
+
+    public void markRevoked(String jti) {
+        // Filtre en reconstruction lu avant l'ajout au filtre courant : si rebuild() le remplace
+        // et le libère entre-temps, le filtre courant est déjà le nouveau et reçoit le jti
+        BloomFilter pending = rebuilding;
+        if (pending != null) {
+            pending.put(jti);
+        }
+        filter.put(jti);
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null || !filter.mightContain(jti)) {
+            return false;
+        }
+        return revokedTokenRepository.existsById(jti);
+    }
+
+    // Un filtre de Bloom ne supporte pas la suppression : il est reconstruit sans les entrées expirées
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.rebuild-interval:600000}",
+               initialDelayString = "${app.jwt.revocation.rebuild-interval:600000}")
+    public synchronized void rebuild() {
+        LocalDateTime now = LocalDateTime.now();
+        int purged = revokedTokenRepository.deleteExpired(now);
+
+        // Le nouveau filtre reçoit les révocations concurrentes avant la lecture des jti actifs :
+        // une révocation ne peut pas tomber entre l'instantané et le remplacement du filtre
+        long expected = revokedTokenRepository.countActive(now);
+        BloomFilter fresh = new BloomFilter(Math.max(expectedInsertions, 2L * expected), falsePositiveRate);
+        rebuilding = fresh;
+        List<String> active;
+        try {
+            active = revokedTokenRepository.findActiveJtis(now);
+            active.forEach(fresh::put);
+            filter = fresh;
+        } finally {
+            rebuilding = null;
+        }
+        log.debug("Filtre de révocation reconstruit: {} token(s) actif(s), {} expiré(s) supprimé(s)",
+                active.size(), purged);
+    }
+}
@@ -1,5 +1,6 @@
 package cm.adcsa.auth.security;
 
+import cm.adcsa.auth.entity.Role;
 import cm.adcsa.auth.entity.Utilisateur;
 import cm.adcsa.auth.enums.StatutUtilisateur;
 import com.fasterxml.jackson.annotation.JsonIgnore;
@@ -12,29 +13,63 @@ import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @AllArgsConstructor
 public class UserPrincipal implements UserDetails {
 
+    // Autorités partagées : une seule instance par rôle, quel que soit le nombre de principaux
+    private static final Map<String, GrantedAuthority> AUTHORITIES = new ConcurrentHashMap<>();
+
     private Long id;
     private String username;
     private String email;
     private String nom;
     private String prenom;
     private StatutUtilisateur statut;
+    private long securityVersion;
+
+    // Masque des permissions effectives (voir Permission), calculé à partir des rôles
+    private long permissions;
+
+    @Builder.Default
+    private boolean accountNonLocked = true;
 
     @JsonIgnore
     private String password;
 
     private Collection<? extends GrantedAuthority> authorities;
 
+    // Rôles directs seulement, lus sur l'entité (rôles chargés)
     public static UserPrincipal create(Utilisateur utilisateur) {
-        List<GrantedAuthority> authorities = utilisateur.getRoles().stream()
-                .map(role -> new SimpleGrantedAuthority("ROLE_" + role.getNom()))
-                .collect(Collectors.toList());
+        return create(utilisateur, utilisateur.getRoles().stream().map(Role::getNom).toList());
+    }
+
+    /**
+     * Principal portant l'ensemble des rôles donnés, directs et hérités des groupes
+     * (voir UtilisateurRepository.findRoleNames).
+     */
+    public static UserPrincipal create(Utilisateur utilisateur, Collection<String> roleNames) {
+        return create(utilisateur, roleNames,
+                !utilisateur.isAccountNonLocked() || utilisateur.getStatut() == StatutUtilisateur.BLOQUE);
+    }
+
+    /**
+     * Variante tenant compte de l'expiration du verrouillage : un compte dont la durée
+     * de verrouillage est écoulée est considéré comme déverrouillé.
+     */
+    public static UserPrincipal create(Utilisateur utilisateur, Collection<String> roleNames, long lockDurationMillis) {
+        return create(utilisateur, roleNames, utilisateur.isAccountLocked(lockDurationMillis));
+    }
+
+    private static UserPrincipal create(Utilisateur utilisateur, Collection<String> roleNames, boolean locked) {
+        List<GrantedAuthority> authorities = roleNames.stream()
+                .distinct()
+                .map(roleName -> authority("ROLE_" + roleName))
+                .toList();
 
         return UserPrincipal.builder()
                 .id(utilisateur.getId())
@@ -43,11 +78,17 @@ public class UserPrincipal implements UserDetails {
                 .nom(utilisateur.getNom())
                 .prenom(utilisateur.getPrenom())
                 .statut(utilisateur.getStatut())
+                .securityVersion(utilisateur.getSecurityVersion() != null ? utilisateur.getSecurityVersion() : 0L)
+                .accountNonLocked(!locked)
                 .password(utilisateur.getPassword())
                 .authorities(authorities)
                 .build();
     }
 
+    public static GrantedAuthority authority(String authority) {
+        return AUTHORITIES.computeIfAbsent(authority, SimpleGrantedAuthority::new);
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return authorities;
@@ -70,7 +111,7 @@ public class UserPrincipal implements UserDetails {
 
     @Override
     public boolean isAccountNonLocked() {
-        return true;
+        return accountNonLocked;
     }
 
     @Override
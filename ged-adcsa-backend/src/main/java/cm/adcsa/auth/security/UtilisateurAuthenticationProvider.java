@@ -0,0 +1,104 @@
+package cm.adcsa.auth.security;
+
+import cm.adcsa.auth.entity.Utilisateur;
+import cm.adcsa.auth.repository.UtilisateurRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.CredentialsExpiredException;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.authentication.LockedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Authentification par nom d'utilisateur et mot de passe en deux requêtes :
+ * l'utilisateur, puis l'ensemble de ses rôles directs et hérités, transmis à
+ * {@link cm.adcsa.auth.service.AuthService} via {@link UtilisateurAuthenticationToken}.
+ * Les comptes verrouillés, inactifs ou dont la première connexion a expiré sont
+ * refusés avant toute vérification du mot de passe.
+ */
+@Slf4j
+public class UtilisateurAuthenticationProvider implements AuthenticationProvider {
+
+    private static final String BAD_CREDENTIALS = "Identifiants invalides";
+
+    private final UtilisateurRepository utilisateurRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final UserDetailsPasswordService userDetailsPasswordService;
+    private final long lockDurationMillis;
+
+    // Hash factice vérifié pour un utilisateur inconnu : même durée de réponse que pour un mauvais mot de passe
+    private volatile String dummyHash;
+
+    public UtilisateurAuthenticationProvider(UtilisateurRepository utilisateurRepository,
+                                             PasswordEncoder passwordEncoder,
+                                             UserDetailsPasswordService userDetailsPasswordService,
+                                             long lockDurationMillis) {
+        this.utilisateurRepository = utilisateurRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.userDetailsPasswordService = userDetailsPasswordService;
+        this.lockDurationMillis = lockDurationMillis;
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        String username = authentication.getName();
+        String password = authentication.getCredentials() != null ? authentication.getCredentials().toString() : "";
+
+        Utilisateur utilisateur = utilisateurRepository.findByUsername(username).orElse(null);
+        if (utilisateur == null) {
+            passwordEncoder.matches(password, dummyHash());
+            log.debug("Utilisateur inconnu: {}", username);
+            throw new UsernameNotFoundException(BAD_CREDENTIALS);
+        }
+
+        // Contrôles sans calcul de hash : un compte qui ne peut pas se connecter ne coûte pas de BCrypt
+        UserPrincipal principal = UserPrincipal.create(utilisateur,
+                utilisateurRepository.findRoleNames(utilisateur.getId()), lockDurationMillis);
+        if (!principal.isAccountNonLocked()) {
+            log.debug("Compte verrouillé: {}", username);
+            throw new LockedException("Compte verrouillé");
+        }
+        if (!principal.isEnabled()) {
+            log.debug("Compte inactif: {}", username);
+            throw new DisabledException("Compte désactivé");
+        }
+        if (utilisateur.isFirstLoginExpired()) {
+            log.debug("Délai de première connexion expiré: {}", username);
+            throw new CredentialsExpiredException("Délai de première connexion expiré");
+        }
+        if (Boolean.TRUE.equals(utilisateur.getCompteVerrouille())) {
+            // Durée de verrouillage écoulée : déverrouillé ici, persisté par la mise à jour de connexion réussie
+            utilisateur.resetTentativesEchec();
+        }
+        if (!passwordEncoder.matches(password, utilisateur.getPassword())) {
+            log.debug("Mot de passe incorrect pour: {}", username);
+            throw new UtilisateurBadCredentialsException(BAD_CREDENTIALS, utilisateur.getId());
+        }
+
+        if (passwordEncoder.upgradeEncoding(utilisateur.getPassword())) {
+            String upgraded = passwordEncoder.encode(password);
+            principal = (UserPrincipal) userDetailsPasswordService.updatePassword(principal, upgraded);
+            utilisateur.setPassword(upgraded);
+        }
+        return new UtilisateurAuthenticationToken(principal, utilisateur);
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication);
+    }
+
+    private String dummyHash() {
+        String hash = dummyHash;
+        if (hash == null) {
+            hash = passwordEncoder.encode("userNotFoundPassword");
+            dummyHash = hash;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,22 @@
+package cm.adcsa.auth.security;
+
+import cm.adcsa.auth.entity.Utilisateur;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+/**
+ * Authentification réussie qui transporte l'utilisateur chargé (avec ses rôles),
+ * pour que la suite de la connexion n'ait pas à le relire en base.
+ */
+public class UtilisateurAuthenticationToken extends UsernamePasswordAuthenticationToken {
+
+    private final transient Utilisateur utilisateur;
+
+    public UtilisateurAuthenticationToken(UserPrincipal principal, Utilisateur utilisateur) {
+        super(principal, null, principal.getAuthorities());
+        this.utilisateur = utilisateur;
+    }
+
+    public Utilisateur getUtilisateur() {
+        return utilisateur;
+    }
+}
@@ -0,0 +1,21 @@
+package cm.adcsa.auth.security;
+
+import org.springframework.security.authentication.BadCredentialsException;
+
+/**
+ * Mot de passe incorrect pour un utilisateur existant. Transporte l'identifiant résolu
+ * par le provider, pour que l'échec soit enregistré sans relire l'utilisateur.
+ */
+public class UtilisateurBadCredentialsException extends BadCredentialsException {
+
+    private final Long utilisateurId;
+
+    public UtilisateurBadCredentialsException(String message, Long utilisateurId) {
+        super(message);
+        this.utilisateurId = utilisateurId;
+    }
+
+    public Long getUtilisateurId() {
+        return utilisateurId;
+    }
+}
@@ -0,0 +1,40 @@
+package cm.adcsa.auth.security;
+
+import io.jsonwebtoken.Claims;
+import lombok.Getter;
+
+import java.util.Date;
+
+/**
+ * Résultat d'une vérification JWT réussie : signature contrôlée une seule fois,
+ * claims immuables réutilisables par le filtre et les services.
+ */
+@Getter
+public final class VerifiedToken {
+
+    private final Claims claims;
+    private final String id;
+    private final String subject;
+    private final Date issuedAt;
+    private final Date expiration;
+
+    VerifiedToken(Claims claims) {
+        this.claims = claims;
+        this.id = claims.getId();
+        this.subject = claims.getSubject();
+        this.issuedAt = claims.getIssuedAt();
+        this.expiration = claims.getExpiration();
+    }
+
+    public <T> T getClaim(String name, Class<T> type) {
+        return claims.get(name, type);
+    }
+
+    public boolean isExpired() {
+        return expiration != null && expiration.getTime() <= System.currentTimeMillis();
+    }
+
+    public long getExpirationMillis() {
+        return expiration != null ? expiration.getTime() : Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,117 @@
+package cm.adcsa.auth.security;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Cache des tokens déjà vérifiés, indexé par l'empreinte SHA-256 du token brut.
+ * Une entrée n'est jamais servie au-delà de l'expiration (exp) du token.
+ */
+@Component
+@Slf4j
+public class VerifiedTokenCache implements MeterBinder {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    });
+
+    private final boolean enabled;
+    private final StripedLruCache<TokenDigest, VerifiedToken> cache;
+
+    public VerifiedTokenCache(@Value("${app.jwt.cache.enabled:true}") boolean enabled,
+                              @Value("${app.jwt.cache.max-size:10000}") int maxSize,
+                              @Value("${app.jwt.cache.segments:16}") int segments) {
+        this.enabled = enabled;
+        this.cache = new StripedLruCache<>(maxSize, segments);
+        log.debug("Cache des tokens vérifiés: actif={}, taille max={}, segments={}", enabled, maxSize, segments);
+    }
+
+    public VerifiedToken get(String token) {
+        if (!enabled) {
+            return null;
+        }
+        return cache.get(TokenDigest.of(token));
+    }
+
+    public void put(String token, VerifiedToken verified) {
+        if (enabled) {
+            cache.put(TokenDigest.of(token), verified, verified.getExpirationMillis());
+        }
+    }
+
+    public void invalidate(String token) {
+        cache.invalidate(TokenDigest.of(token));
+    }
+
+    public long hitCount() {
+        return cache.hitCount();
+    }
+
+    public long missCount() {
+        return cache.missCount();
+    }
+
+    public long evictionCount() {
+        return cache.evictionCount();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("auth.token.cache.requests", cache, StripedLruCache::hitCount)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("auth.token.cache.requests", cache, StripedLruCache::missCount)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("auth.token.cache.evictions", cache, StripedLruCache::evictionCount)
+                .register(registry);
+        Gauge.builder("auth.token.cache.size", cache, StripedLruCache::size)
+                .register(registry);
+    }
+
+    private static final class TokenDigest {
+        private final long a;
+        private final long b;
+        private final long c;
+        private final long d;
+
+        private TokenDigest(long a, long b, long c, long d) {
+            this.a = a;
+            this.b = b;
+            this.c = c;
+            this.d = d;
+        }
+
+        static TokenDigest of(String token) {
+            ByteBuffer digest = ByteBuffer.wrap(SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII)));
+            return new TokenDigest(digest.getLong(), digest.getLong(), digest.getLong(), digest.getLong());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof TokenDigest)) return false;
+            TokenDigest that = (TokenDigest) o;
+            return a == that.a && b == that.b && c == that.c && d == that.d;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (a ^ (a >>> 32));
+        }
+    }
+}
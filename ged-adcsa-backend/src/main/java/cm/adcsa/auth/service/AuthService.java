@@ -1,29 +1,43 @@
 package cm.adcsa.auth.service;
 
+import cm.adcsa.auth.config.StatementBudget;
 import cm.adcsa.auth.dto.*;
 import cm.adcsa.auth.entity.PasswordResetToken;
 import cm.adcsa.auth.entity.Utilisateur;
 import cm.adcsa.auth.entity.UtilisateurPasswordHistory;
 import cm.adcsa.auth.enums.StatutUtilisateur;
+import cm.adcsa.auth.exception.ServiceOverloadedException;
+import cm.adcsa.auth.exception.TooManyLoginAttemptsException;
 import cm.adcsa.auth.repository.PasswordResetTokenRepository;
 import cm.adcsa.auth.repository.UtilisateurPasswordHistoryRepository;
 import cm.adcsa.auth.repository.UtilisateurRepository;
 import cm.adcsa.auth.security.JwtTokenProvider;
+import cm.adcsa.auth.security.LoginThrottle;
+import cm.adcsa.auth.security.PermissionRegistry;
+import cm.adcsa.auth.security.PrincipalChangedEvent;
+import cm.adcsa.auth.security.UtilisateurBadCredentialsException;
+import cm.adcsa.auth.security.SecurityVersionRegistry;
+import cm.adcsa.auth.security.TokenRevocationService;
 import cm.adcsa.auth.security.UserPrincipal;
+import cm.adcsa.auth.security.UtilisateurAuthenticationToken;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 
 @Service
@@ -38,65 +52,75 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final PasswordResetTokenRepository passwordResetTokenRepository;
     private final UtilisateurPasswordHistoryRepository passwordHistoryRepository;
+    private final RefreshTokenService refreshTokenService;
+    private final LoginThrottle loginThrottle;
+    private final PermissionRegistry permissionRegistry;
+    private final LoginActivityWriter loginActivityWriter;
+    private final TokenRevocationService tokenRevocationService;
+    private final SecurityVersionRegistry securityVersionRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
 
     @Value("${app.security.max-login-attempts}")
     private int maxLoginAttempts;
 
-    @Value("${app.security.account-lock-duration}")
-    private long accountLockDuration;
-
     @Value("${app.security.password-expiration-days}")
     private int passwordExpirationDays;
 
     @Value("${app.security.first-login-expiration-days}")
     private int firstLoginExpirationDays;
 
-    @Transactional
-    public LoginResponse login(LoginRequest loginRequest) {
+    // Pas de transaction englobante : la vérification du mot de passe ne doit pas retenir de connexion JDBC
+    // Utilisateur, rôles directs et hérités, token de rafraîchissement, ré-encodage éventuel du mot de passe
+    @StatementBudget(value = "login", max = 4)
+    public LoginResponse login(LoginRequest loginRequest, String clientIp) {
         logger.debug("Tentative de connexion pour l'utilisateur: {}", loginRequest.getUsername());
         
         try {
-            // Authentification avec Spring Security
-            Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                    loginRequest.getUsername(),
-                    loginRequest.getPassword()
-                )
-            );
-
-            // Récupération de l'utilisateur après authentification réussie
-            Utilisateur utilisateur = utilisateurRepository.findByUsername(loginRequest.getUsername())
-                    .orElseThrow(() -> {
-                        logger.error("Utilisateur non trouvé après authentification: {}", loginRequest.getUsername());
-                        return new RuntimeException("Utilisateur non trouvé");
-                    });
-
-            logger.debug("Authentification réussie pour l'utilisateur: {}", utilisateur.getUsername());
-
-            // Vérification du statut du compte
-            if (Boolean.TRUE.equals(utilisateur.getCompteVerrouille())) {
-                if (utilisateur.getDateVerrouillage() != null && 
-                    utilisateur.getDateVerrouillage().plusMinutes(accountLockDuration / 60000).isAfter(LocalDateTime.now())) {
-                    logger.error("Compte verrouillé pour l'utilisateur: {}", utilisateur.getUsername());
-                    throw new RuntimeException("Compte verrouillé. Veuillez réessayer plus tard.");
-                } else {
-                    logger.debug("Déverrouillage du compte pour l'utilisateur: {}", utilisateur.getUsername());
-                    utilisateur.resetTentativesEchec();
-                    utilisateurRepository.save(utilisateur);
+            // Limitation en mémoire, avant tout accès base ou calcul de hash
+            loginThrottle.checkAllowed(loginRequest.getUsername(), clientIp);
+
+            // Authentification : l'utilisateur et ses rôles sont chargés une seule fois par le provider
+            UtilisateurAuthenticationToken authentication;
+            try {
+                authentication = (UtilisateurAuthenticationToken) authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(
+                        loginRequest.getUsername(),
+                        loginRequest.getPassword()
+                    )
+                );
+            } catch (UsernameNotFoundException e) {
+                // Utilisateur inconnu : compté en mémoire uniquement, aucune écriture en base
+                loginThrottle.recordFailure(loginRequest.getUsername(), clientIp);
+                throw e;
+            } catch (UtilisateurBadCredentialsException e) {
+                int failures = loginThrottle.recordFailure(loginRequest.getUsername(), clientIp);
+                boolean lock = loginThrottle.isLockoutThreshold(failures);
+                loginActivityWriter.recordFailure(e.getUtilisateurId(), failures, lock);
+                if (lock) {
+                    eventPublisher.publishEvent(PrincipalChangedEvent.ofUser(e.getUtilisateurId()));
                 }
+                throw e;
             }
+            loginThrottle.recordSuccess(loginRequest.getUsername());
+            Utilisateur utilisateur = authentication.getUtilisateur();
 
-            // Génération du token JWT
+            logger.debug("Authentification réussie pour l'utilisateur: {}", utilisateur.getUsername());
+
+            // Génération du token JWT (signature hors transaction)
             SecurityContextHolder.getContext().setAuthentication(authentication);
             UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+            userPrincipal.setPermissions(permissionRegistry.maskOf(userPrincipal.getAuthorities()));
             String jwt = tokenProvider.generateAccessToken(userPrincipal);
-            String refreshToken = tokenProvider.generateRefreshToken(userPrincipal);
-            logger.debug("Token JWT généré avec succès pour l'utilisateur: {}", utilisateur.getUsername());
 
-            // Mise à jour des informations de connexion
+            // Seule écriture synchrone : le refresh token. Dernière connexion et remise à zéro
+            // des tentatives sont écrites en différé
+            String refreshToken = refreshTokenService.issue(utilisateur);
+            loginActivityWriter.recordSuccess(utilisateur.getId(), LocalDateTime.now());
             utilisateur.resetTentativesEchec();
             utilisateur.updateDerniereConnexion();
-            utilisateurRepository.save(utilisateur);
+            logger.debug("Token JWT généré avec succès pour l'utilisateur: {}", utilisateur.getUsername());
 
             // Préparation de la réponse
             boolean isFirstLogin = Boolean.TRUE.equals(utilisateur.getIsFirstLogin());
@@ -120,41 +144,63 @@ public class AuthService {
                             .build())
                     .build();
 
+        } catch (ServiceOverloadedException | TooManyLoginAttemptsException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Erreur lors de la connexion: {}", e.getMessage());
             throw new RuntimeException("Erreur lors de la connexion: " + e.getMessage());
         }
     }
 
-    @Transactional
+    /**
+     * Les vérifications et l'encodage BCrypt sont faits entre deux transactions courtes ;
+     * l'écriture échoue si le mot de passe a été modifié entre-temps.
+     */
+    // Lecture : utilisateur, 3 dernières empreintes ; écriture : utilisateur, mise à jour, historique,
+    // révocation des tokens de rafraîchissement
+    @StatementBudget(value = "password-change", max = 6)
     public void changePassword(Long userId, PasswordChangeRequest request) {
-        Utilisateur utilisateur = utilisateurRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
+        PasswordSnapshot snapshot = readOnlyTransactionTemplate.execute(status -> {
+            Utilisateur utilisateur = utilisateurRepository.findById(userId)
+                    .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
+            return new PasswordSnapshot(utilisateur.getPassword(),
+                    passwordHistoryRepository.findRecentPasswords(userId, PageRequest.of(0, 3)));
+        });
 
-        if (!passwordEncoder.matches(request.getCurrentPassword(), utilisateur.getPassword())) {
+        if (!passwordEncoder.matches(request.getCurrentPassword(), snapshot.currentHash)) {
             throw new RuntimeException("Mot de passe actuel incorrect");
         }
 
-        if (isPasswordInHistory(utilisateur, request.getNewPassword())) {
+        if (isPasswordInHistory(snapshot.historyHashes, request.getNewPassword())) {
             throw new RuntimeException("Le nouveau mot de passe ne peut pas être identique à un des 3 derniers mots de passe");
         }
 
         String encodedPassword = passwordEncoder.encode(request.getNewPassword());
-        utilisateur.updatePassword(encodedPassword);
-        utilisateurRepository.save(utilisateur);
 
-        // Sauvegarder l'ancien mot de passe dans l'historique
-        UtilisateurPasswordHistory passwordHistory = UtilisateurPasswordHistory.builder()
-                .utilisateur(utilisateur)
-                .password(utilisateur.getPassword())
-                .changedAt(LocalDateTime.now())
-                .build();
-        passwordHistoryRepository.save(passwordHistory);
+        transactionTemplate.executeWithoutResult(status -> {
+            Utilisateur utilisateur = utilisateurRepository.findById(userId)
+                    .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
+            if (!snapshot.currentHash.equals(utilisateur.getPassword())) {
+                throw new RuntimeException("Le mot de passe a été modifié entre-temps, veuillez réessayer");
+            }
+            utilisateur.updatePassword(encodedPassword);
+            saveWithNewSecurityVersion(utilisateur);
+
+            // Sauvegarder l'ancien mot de passe dans l'historique
+            UtilisateurPasswordHistory passwordHistory = UtilisateurPasswordHistory.builder()
+                    .utilisateur(utilisateur)
+                    .password(utilisateur.getPassword())
+                    .changedAt(LocalDateTime.now())
+                    .build();
+            passwordHistoryRepository.save(passwordHistory);
+            refreshTokenService.revokeAll(userId);
+            eventPublisher.publishEvent(PrincipalChangedEvent.ofUser(userId));
+        });
     }
 
     @Transactional
     public void requestPasswordReset(String email) {
-        Utilisateur utilisateur = utilisateurRepository.findByEmail(email)
+        Utilisateur utilisateur = utilisateurRepository.findByEmailIgnoringCase(email)
                 .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
 
         String token = UUID.randomUUID().toString();
@@ -169,47 +215,66 @@ public class AuthService {
         passwordResetTokenRepository.save(resetToken);
     }
 
-    @Transactional
     public void resetPassword(String token, String newPassword) {
+        readOnlyTransactionTemplate.executeWithoutResult(status -> findValidResetToken(token));
+
+        String encodedPassword = passwordEncoder.encode(newPassword);
+
+        // Le token est relu dans la transaction d'écriture : il ne peut servir qu'une fois
+        transactionTemplate.executeWithoutResult(status -> {
+            PasswordResetToken resetToken = findValidResetToken(token);
+            Utilisateur utilisateur = resetToken.getUtilisateur();
+            utilisateur.updatePassword(encodedPassword);
+            saveWithNewSecurityVersion(utilisateur);
+
+            passwordResetTokenRepository.delete(resetToken);
+            refreshTokenService.revokeAll(utilisateur.getId());
+            eventPublisher.publishEvent(PrincipalChangedEvent.ofUser(utilisateur.getId()));
+        });
+    }
+
+    // Nouveau mot de passe : les tokens d'accès émis avec l'ancien ne reconstruisent plus le principal
+    // et les tokens de rafraîchissement existants sont révoqués par l'appelant
+    private void saveWithNewSecurityVersion(Utilisateur utilisateur) {
+        long version = utilisateur.incrementSecurityVersion();
+        utilisateurRepository.save(utilisateur);
+        securityVersionRegistry.record(utilisateur.getId(), version);
+    }
+
+    private PasswordResetToken findValidResetToken(String token) {
         PasswordResetToken resetToken = passwordResetTokenRepository.findByToken(token)
                 .orElseThrow(() -> new RuntimeException("Token invalide"));
 
         if (resetToken.getDateExpiration().isBefore(LocalDateTime.now())) {
             throw new RuntimeException("Token expiré");
         }
-
-        Utilisateur utilisateur = resetToken.getUtilisateur();
-        String encodedPassword = passwordEncoder.encode(newPassword);
-        utilisateur.updatePassword(encodedPassword);
-        utilisateurRepository.save(utilisateur);
-
-        passwordResetTokenRepository.delete(resetToken);
+        return resetToken;
     }
 
-    private boolean isPasswordInHistory(Utilisateur utilisateur, String newPassword) {
-        return utilisateur.getPasswordHistory().stream()
-                .limit(3)
-                .anyMatch(history -> passwordEncoder.matches(newPassword, history.getPassword()));
+    private boolean isPasswordInHistory(List<String> historyHashes, String newPassword) {
+        return historyHashes.stream()
+                .anyMatch(hash -> passwordEncoder.matches(newPassword, hash));
     }
 
-    @Transactional
+    // Pas de transaction englobante : la révocation d'une famille réutilisée doit être validée même en cas d'échec
+    // Token avec utilisateur, consommation, nouveau token, rôles directs et hérités
+    @StatementBudget(value = "refresh", max = 4)
     public TokenRefreshResponse refreshToken(String refreshToken) {
         try {
-            if (!tokenProvider.validateToken(refreshToken)) {
-                throw new RuntimeException("Token de rafraîchissement invalide");
+            RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshToken);
+            Utilisateur utilisateur = rotation.getUtilisateur();
+            if (!utilisateur.getStatut().isActif()) {
+                throw new RuntimeException("Compte inactif");
             }
 
-            String email = tokenProvider.getEmailFromJWT(refreshToken);
-            Utilisateur utilisateur = utilisateurRepository.findByEmail(email)
-                    .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
-
-            UserPrincipal userPrincipal = UserPrincipal.create(utilisateur);
+            UserPrincipal userPrincipal = UserPrincipal.create(utilisateur,
+                    utilisateurRepository.findRoleNames(utilisateur.getId()));
+            userPrincipal.setPermissions(permissionRegistry.maskOf(userPrincipal.getAuthorities()));
             String newToken = tokenProvider.generateAccessToken(userPrincipal);
-            String newRefreshToken = tokenProvider.generateRefreshToken(userPrincipal);
 
             return TokenRefreshResponse.builder()
                     .accessToken(newToken)
-                    .refreshToken(newRefreshToken)
+                    .refreshToken(rotation.getRefreshToken())
                     .tokenType("Bearer")
                     .build();
 
@@ -218,4 +283,30 @@ public class AuthService {
             throw new RuntimeException("Erreur lors du rafraîchissement du token");
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Révoque le token d'accès présenté (jusqu'à son expiration) et la famille
+     * du token de rafraîchissement associé.
+     */
+    public void logout(String accessToken, String refreshToken) {
+        if (accessToken != null) {
+            tokenProvider.verify(accessToken).ifPresent(token -> {
+                tokenRevocationService.revoke(token, token.getClaim(JwtTokenProvider.CLAIM_USER_ID, Long.class));
+                logger.debug("Token d'accès révoqué pour: {}", token.getSubject());
+            });
+        }
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            refreshTokenService.revokeFamilyOf(refreshToken);
+        }
+    }
+
+    private static final class PasswordSnapshot {
+        private final String currentHash;
+        private final List<String> historyHashes;
+
+        private PasswordSnapshot(String currentHash, List<String> historyHashes) {
+            this.currentHash = currentHash;
+            this.historyHashes = historyHashes;
+        }
+    }
+}
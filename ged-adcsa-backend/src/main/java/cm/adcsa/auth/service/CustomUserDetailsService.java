@@ -2,23 +2,36 @@ package cm.adcsa.auth.service;
 
 import cm.adcsa.auth.entity.Utilisateur;
 import cm.adcsa.auth.repository.UtilisateurRepository;
+import cm.adcsa.auth.security.PermissionRegistry;
+import cm.adcsa.auth.security.PrincipalCache;
 import cm.adcsa.auth.security.UserPrincipal;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UtilisateurRepository utilisateurRepository;
+    private final PermissionRegistry permissionRegistry;
+    private final PrincipalCache principalCache;
 
+    // Toujours sur le primaire : ce chargement suit un rôle retiré ou une suppression (version
+    // de sécurité périmée), un réplica en retard renverrait les droits révoqués
     @Override
+    @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        UserPrincipal cached = principalCache.get(username);
+        if (cached != null) {
+            return cached;
+        }
         log.debug("Tentative de chargement de l'utilisateur avec le nom d'utilisateur: {}", username);
         
         Utilisateur utilisateur = utilisateurRepository.findByUsername(username)
@@ -29,6 +42,18 @@ public class CustomUserDetailsService implements UserDetailsService {
 
         log.debug("Utilisateur trouvé: {}", utilisateur.getUsername());
         
-        return UserPrincipal.create(utilisateur);
+        UserPrincipal principal = UserPrincipal.create(utilisateur,
+                utilisateurRepository.findRoleNames(utilisateur.getId()));
+        principal.setPermissions(permissionRegistry.maskOf(principal.getAuthorities()));
+        return principalCache.put(principal);
     }
-}
\ No newline at end of file
+
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        UserPrincipal principal = (UserPrincipal) user;
+        utilisateurRepository.rehashPassword(principal.getId(), newPassword);
+        principal.setPassword(newPassword);
+        log.debug("Mot de passe ré-encodé avec les paramètres courants pour: {}", principal.getUsername());
+        return principal;
+    }
+}
@@ -0,0 +1,248 @@
+package cm.adcsa.auth.service;
+
+import cm.adcsa.auth.dto.GroupCreateRequest;
+import cm.adcsa.auth.dto.GroupResponse;
+import cm.adcsa.auth.entity.Groupe;
+import cm.adcsa.auth.exception.BusinessException;
+import cm.adcsa.auth.repository.GroupeRepository;
+import cm.adcsa.auth.repository.RoleRepository;
+import cm.adcsa.auth.security.PrincipalChangedEvent;
+import cm.adcsa.auth.security.SecurityVersionRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hiérarchie des groupes et rôles portés par les groupes. La table de fermeture
+ * {@code groupe_closure} contient un couple (ancêtre, descendant) pour chaque chemin
+ * de l'arbre ; elle est mise à jour ici de façon incrémentale, par requêtes
+ * ensemblistes, à chaque création, déplacement ou suppression de groupe. Toute
+ * modification qui change les rôles effectifs d'utilisateurs invalide leurs tokens.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GroupService {
+
+    // Utilisateurs membres du groupe ou de l'un de ses sous-groupes
+    private static final String SUBTREE_MEMBERS =
+            "SELECT DISTINCT ug.utilisateur_id FROM groupe_closure gc " +
+            "JOIN utilisateur_groupe ug ON ug.groupe_id = gc.descendant_id WHERE gc.ancetre_id = :groupId";
+
+    private final GroupeRepository groupeRepository;
+    private final RoleRepository roleRepository;
+    private final SecurityVersionRegistry securityVersionRegistry;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public GroupResponse createGroup(GroupCreateRequest request) {
+        if (groupeRepository.existsByNom(request.getNom())) {
+            throw new BusinessException("Un groupe existe déjà avec le nom: " + request.getNom());
+        }
+        if (request.getParentId() != null) {
+            findGroupe(request.getParentId());
+        }
+        Groupe groupe = groupeRepository.saveAndFlush(Groupe.builder()
+                .nom(request.getNom())
+                .description(request.getDescription())
+                .parentId(request.getParentId())
+                .build());
+
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("groupId", groupe.getId())
+                .addValue("parentId", request.getParentId());
+        jdbcTemplate.update("INSERT INTO groupe_closure (ancetre_id, descendant_id, profondeur) " +
+                "VALUES (:groupId, :groupId, 0)", parameters);
+        if (request.getParentId() != null) {
+            // Chemins vers le nouveau groupe : ceux du parent prolongés d'un niveau
+            jdbcTemplate.update("INSERT INTO groupe_closure (ancetre_id, descendant_id, profondeur) " +
+                    "SELECT ancetre_id, :groupId, profondeur + 1 FROM groupe_closure WHERE descendant_id = :parentId",
+                    parameters);
+        }
+        log.info("Groupe créé: {} (parent: {})", groupe.getNom(), groupe.getParentId());
+        return mapToGroupResponse(groupe, List.of());
+    }
+
+    /**
+     * Rattache un groupe (et tout son sous-arbre) à un nouveau parent, ou en fait une
+     * racine si {@code parentId} est nul.
+     */
+    @Transactional
+    public GroupResponse moveGroup(Long groupId, Long parentId) {
+        Groupe groupe = findGroupe(groupId);
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("groupId", groupId)
+                .addValue("parentId", parentId);
+        if (parentId != null) {
+            findGroupe(parentId);
+            Integer cycle = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM groupe_closure " +
+                    "WHERE ancetre_id = :groupId AND descendant_id = :parentId", parameters, Integer.class);
+            if (cycle != null && cycle > 0) {
+                throw new BusinessException("Un groupe ne peut pas être rattaché à l'un de ses sous-groupes");
+            }
+        }
+        List<Long> affected = jdbcTemplate.queryForList(SUBTREE_MEMBERS, parameters, Long.class);
+
+        // Détache le sous-arbre de ses anciens ancêtres, les chemins internes sont conservés
+        jdbcTemplate.update("DELETE FROM groupe_closure " +
+                "WHERE descendant_id IN (SELECT descendant_id FROM groupe_closure WHERE ancetre_id = :groupId) " +
+                "AND ancetre_id NOT IN (SELECT descendant_id FROM groupe_closure WHERE ancetre_id = :groupId)",
+                parameters);
+        if (parentId != null) {
+            // Produit des ancêtres du nouveau parent et des descendants du groupe
+            jdbcTemplate.update("INSERT INTO groupe_closure (ancetre_id, descendant_id, profondeur) " +
+                    "SELECT sup.ancetre_id, sub.descendant_id, sup.profondeur + sub.profondeur + 1 " +
+                    "FROM groupe_closure sup CROSS JOIN groupe_closure sub " +
+                    "WHERE sup.descendant_id = :parentId AND sub.ancetre_id = :groupId", parameters);
+        }
+        groupe.setParentId(parentId);
+        groupeRepository.save(groupe);
+
+        if (!affected.isEmpty()) {
+            securityVersionRegistry.increment(affected);
+            eventPublisher.publishEvent(PrincipalChangedEvent.ofUsers(affected));
+        }
+        return mapToGroupResponse(groupe, findRoleNames(groupId));
+    }
+
+    @Transactional
+    public void deleteGroup(Long groupId) {
+        Groupe groupe = findGroupe(groupId);
+        if (groupeRepository.existsByParentId(groupId)) {
+            throw new BusinessException("Le groupe contient des sous-groupes et ne peut pas être supprimé");
+        }
+        List<Long> affected = jdbcTemplate.queryForList(SUBTREE_MEMBERS,
+                new MapSqlParameterSource("groupId", groupId), Long.class);
+        // Chemins, rôles et appartenances supprimés en cascade
+        groupeRepository.delete(groupe);
+        if (!affected.isEmpty()) {
+            securityVersionRegistry.increment(affected);
+            eventPublisher.publishEvent(PrincipalChangedEvent.ofUsers(affected));
+        }
+        log.info("Groupe supprimé: {}", groupe.getNom());
+    }
+
+    @Transactional(readOnly = true)
+    public List<GroupResponse> getAllGroups() {
+        Map<Long, List<String>> rolesByGroup = new HashMap<>();
+        jdbcTemplate.query("SELECT gr.groupe_id, r.nom FROM groupe_role gr JOIN role r ON r.id = gr.role_id",
+                (RowCallbackHandler) rs -> rolesByGroup.computeIfAbsent(rs.getLong(1), id -> new ArrayList<>())
+                        .add(rs.getString(2)));
+        return groupeRepository.findAll(Sort.by("id")).stream()
+                .map(groupe -> mapToGroupResponse(groupe, rolesByGroup.getOrDefault(groupe.getId(), List.of())))
+                .toList();
+    }
+
+    /**
+     * Attribue un rôle au groupe ; les membres du groupe et de ses sous-groupes en héritent.
+     */
+    @Transactional
+    public GroupResponse grantRole(Long groupId, Long roleId) {
+        Groupe groupe = findGroupe(groupId);
+        roleRepository.findById(roleId)
+                .orElseThrow(() -> new EntityNotFoundException("Rôle non trouvé avec l'id: " + roleId));
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("groupId", groupId)
+                .addValue("roleId", roleId);
+        int inserted = jdbcTemplate.update("INSERT INTO groupe_role (groupe_id, role_id) " +
+                "SELECT :groupId, :roleId WHERE NOT EXISTS " +
+                "(SELECT 1 FROM groupe_role WHERE groupe_id = :groupId AND role_id = :roleId)", parameters);
+        if (inserted > 0) {
+            invalidateSubtree(parameters);
+        }
+        return mapToGroupResponse(groupe, findRoleNames(groupId));
+    }
+
+    @Transactional
+    public GroupResponse revokeRole(Long groupId, Long roleId) {
+        Groupe groupe = findGroupe(groupId);
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("groupId", groupId)
+                .addValue("roleId", roleId);
+        int deleted = jdbcTemplate.update(
+                "DELETE FROM groupe_role WHERE groupe_id = :groupId AND role_id = :roleId", parameters);
+        if (deleted > 0) {
+            invalidateSubtree(parameters);
+        }
+        return mapToGroupResponse(groupe, findRoleNames(groupId));
+    }
+
+    @Transactional
+    public int addMembers(Long groupId, List<Long> userIds) {
+        findGroupe(groupId);
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("groupId", groupId)
+                .addValue("userIds", userIds);
+        List<Long> added = jdbcTemplate.queryForList("SELECT u.id FROM \"utilisateur\" u WHERE u.id IN (:userIds) " +
+                "AND NOT EXISTS (SELECT 1 FROM utilisateur_groupe ug " +
+                "WHERE ug.utilisateur_id = u.id AND ug.groupe_id = :groupId)", parameters, Long.class);
+        if (added.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.update("INSERT INTO utilisateur_groupe (utilisateur_id, groupe_id) " +
+                "SELECT id, :groupId FROM \"utilisateur\" WHERE id IN (:addedIds)",
+                parameters.addValue("addedIds", added));
+        securityVersionRegistry.increment(added);
+        eventPublisher.publishEvent(PrincipalChangedEvent.ofUsers(added));
+        return added.size();
+    }
+
+    @Transactional
+    public int removeMembers(Long groupId, List<Long> userIds) {
+        findGroupe(groupId);
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("groupId", groupId)
+                .addValue("userIds", userIds);
+        List<Long> removed = jdbcTemplate.queryForList("SELECT utilisateur_id FROM utilisateur_groupe " +
+                "WHERE groupe_id = :groupId AND utilisateur_id IN (:userIds)", parameters, Long.class);
+        if (removed.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.update("DELETE FROM utilisateur_groupe WHERE groupe_id = :groupId AND utilisateur_id IN (:userIds)",
+                parameters);
+        securityVersionRegistry.increment(removed);
+        eventPublisher.publishEvent(PrincipalChangedEvent.ofUsers(removed));
+        return removed.size();
+    }
+
+    private void invalidateSubtree(MapSqlParameterSource parameters) {
+        List<Long> affected = jdbcTemplate.queryForList(SUBTREE_MEMBERS, parameters, Long.class);
+        if (!affected.isEmpty()) {
+            securityVersionRegistry.increment(affected);
+            eventPublisher.publishEvent(PrincipalChangedEvent.ofUsers(affected));
+        }
+    }
+
+    private Groupe findGroupe(Long groupId) {
+        return groupeRepository.findById(groupId)
+                .orElseThrow(() -> new EntityNotFoundException("Groupe non trouvé avec l'id: " + groupId));
+    }
+
+    private List<String> findRoleNames(Long groupId) {
+        return jdbcTemplate.queryForList("SELECT r.nom FROM groupe_role gr JOIN role r ON r.id = gr.role_id " +
+                "WHERE gr.groupe_id = :groupId ORDER BY r.nom", new MapSqlParameterSource("groupId", groupId), String.class);
+    }
+
+    private GroupResponse mapToGroupResponse(Groupe groupe, List<String> roles) {
+        GroupResponse response = new GroupResponse();
+        response.setId(groupe.getId());
+        response.setNom(groupe.getNom());
+        response.setDescription(groupe.getDescription());
+        response.setParentId(groupe.getParentId());
+        response.setRoles(roles);
+        return response;
+    }
+}
@@ -0,0 +1,154 @@
+package cm.adcsa.auth.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Écriture différée des informations de connexion (dernière connexion, tentatives
+ * échouées, verrouillage). Les mises à jour d'un même utilisateur sont fusionnées en
+ * mémoire puis écrites périodiquement par lots JDBC ; la connexion n'attend aucune
+ * écriture. Le verrouillage est appliqué immédiatement en mémoire par
+ * {@link cm.adcsa.auth.security.LoginThrottle}, la base suit au prochain vidage.
+ * Les mises à jour sont indexées par identifiant d'utilisateur ; les colonnes de
+ * verrouillage ne sont modifiées que par un verrouillage ou une connexion réussie.
+ */
+@Component
+@Slf4j
+public class LoginActivityWriter implements MeterBinder {
+
+    // compte_verrouille à NULL : colonnes de verrouillage laissées telles quelles
+    private static final String UPDATE_SQL =
+            "UPDATE \"utilisateur\" SET derniere_connexion = COALESCE(?, derniere_connexion), " +
+            "tentatives_connexion = ?, compte_verrouille = COALESCE(?, compte_verrouille), " +
+            "date_verrouillage = CASE WHEN ? THEN ? ELSE date_verrouillage END WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final Map<Long, PendingUpdate> pending = new ConcurrentHashMap<>();
+    private final LongAdder flushed = new LongAdder();
+
+    public LoginActivityWriter(JdbcTemplate jdbcTemplate,
+                               @Value("${app.security.login-activity.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    public void recordSuccess(Long utilisateurId, LocalDateTime at) {
+        pending.merge(utilisateurId, PendingUpdate.success(at), PendingUpdate::then);
+    }
+
+    public void recordFailure(Long utilisateurId, int failures, boolean lock) {
+        pending.merge(utilisateurId, PendingUpdate.failure(failures, lock ? LocalDateTime.now() : null), PendingUpdate::then);
+    }
+
+    @Scheduled(fixedDelayString = "${app.security.login-activity.flush-interval:1000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(batchSize);
+        List<PendingUpdate> updates = new ArrayList<>(batchSize);
+        for (Long id : pending.keySet()) {
+            PendingUpdate update = pending.remove(id);
+            if (update == null) {
+                continue;
+            }
+            ids.add(id);
+            updates.add(update);
+            if (updates.size() == batchSize) {
+                write(ids, updates);
+                ids.clear();
+                updates.clear();
+            }
+        }
+        if (!updates.isEmpty()) {
+            write(ids, updates);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flush();
+        if (!pending.isEmpty()) {
+            log.warn("{} mise(s) à jour de connexion non écrite(s) à l'arrêt", pending.size());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("auth.login.activity.pending", pending, Map::size)
+                .description("Mises à jour de connexion en attente d'écriture")
+                .register(registry);
+        FunctionCounter.builder("auth.login.activity.flushed", flushed, LongAdder::sum)
+                .register(registry);
+    }
+
+    private void write(List<Long> ids, List<PendingUpdate> updates) {
+        List<Object[]> batch = new ArrayList<>(updates.size());
+        for (int i = 0; i < updates.size(); i++) {
+            batch.add(updates.get(i).toParameters(ids.get(i)));
+        }
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, batch);
+            flushed.add(batch.size());
+        } catch (Exception e) {
+            log.error("Échec de l'écriture de {} mise(s) à jour de connexion: {}", batch.size(), e.getMessage());
+            // Remises en file ; un événement plus récent arrivé entre-temps s'applique par-dessus
+            for (int i = 0; i < updates.size(); i++) {
+                pending.merge(ids.get(i), updates.get(i), (newer, older) -> older.then(newer));
+            }
+        }
+    }
+
+    /**
+     * État à écrire pour un utilisateur : la dernière connexion réussie connue, l'état
+     * des tentatives tel qu'il résulte du dernier événement et, le cas échéant, le
+     * verrouillage décidé ({@code lockedAt}) ou levé par une connexion réussie ({@code unlock}).
+     */
+    private record PendingUpdate(LocalDateTime lastLogin, int failures, LocalDateTime lockedAt, boolean unlock) {
+
+        static PendingUpdate success(LocalDateTime at) {
+            return new PendingUpdate(at, 0, null, true);
+        }
+
+        static PendingUpdate failure(int failures, LocalDateTime lockedAt) {
+            return new PendingUpdate(null, failures, lockedAt, false);
+        }
+
+        PendingUpdate then(PendingUpdate next) {
+            if (next.lastLogin != null) {
+                return next;
+            }
+            // Un verrouillage déjà décidé n'est levé que par une connexion réussie
+            return new PendingUpdate(lastLogin, next.failures, next.lockedAt != null ? next.lockedAt : lockedAt, unlock);
+        }
+
+        Object[] toParameters(Long id) {
+            boolean lockChanged = lockedAt != null || unlock;
+            return new Object[] {
+                    lastLogin != null ? Timestamp.valueOf(lastLogin) : null,
+                    failures,
+                    lockChanged ? lockedAt != null : null,
+                    lockChanged,
+                    lockedAt != null ? Timestamp.valueOf(lockedAt) : null,
+                    id
+            };
+        }
+    }
+}
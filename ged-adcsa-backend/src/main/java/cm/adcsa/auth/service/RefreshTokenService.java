@@ -0,0 +1,140 @@
+package cm.adcsa.auth.service;
+
+import cm.adcsa.auth.entity.RefreshToken;
+import cm.adcsa.auth.entity.Utilisateur;
+import cm.adcsa.auth.exception.AuthenticationException;
+import cm.adcsa.auth.repository.RefreshTokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Value("${app.jwt.refresh-token.expiration}")
+    private long refreshTokenExpirationInMs;
+
+    @Value("${app.jwt.refresh-token.purge-batch-size:500}")
+    private int purgeBatchSize;
+
+    @Transactional
+    public String issue(Utilisateur utilisateur) {
+        return issue(utilisateur, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Consomme un token de rafraîchissement et en émet un nouveau dans la même famille.
+     * La réutilisation d'un token déjà consommé révoque toute la famille.
+     */
+    @Transactional(noRollbackFor = AuthenticationException.class)
+    public Rotation rotate(String rawToken) {
+        RefreshToken token = refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .orElseThrow(() -> new AuthenticationException("Token de rafraîchissement inconnu"));
+
+        LocalDateTime now = LocalDateTime.now();
+        if (token.isRevoked() || refreshTokenRepository.markAsUsed(token.getId(), now) == 0) {
+            int revoked = refreshTokenRepository.revokeFamily(token.getFamilyId());
+            log.warn("Réutilisation du token de rafraîchissement détectée (famille {}, utilisateur {}): {} token(s) révoqué(s)",
+                    token.getFamilyId(), token.getUtilisateur().getId(), revoked);
+            throw new AuthenticationException("Token de rafraîchissement déjà utilisé");
+        }
+        if (token.getExpiryDate().isBefore(now)) {
+            throw new AuthenticationException("Token de rafraîchissement expiré");
+        }
+
+        Utilisateur utilisateur = token.getUtilisateur();
+        return new Rotation(utilisateur, issue(utilisateur, token.getFamilyId()));
+    }
+
+    @Transactional
+    public void revokeFamilyOf(String rawToken) {
+        refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId()));
+    }
+
+    @Transactional
+    public void revokeAll(Long utilisateurId) {
+        refreshTokenRepository.revokeAllForUtilisateur(utilisateurId);
+    }
+
+    // Les tokens consommés sont conservés jusqu'à expiration pour détecter leur réutilisation
+    @Scheduled(fixedDelayString = "${app.jwt.refresh-token.purge-interval:3600000}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        List<Long> ids;
+        do {
+            ids = refreshTokenRepository.findExpiredIds(now, PageRequest.of(0, purgeBatchSize));
+            if (!ids.isEmpty()) {
+                refreshTokenRepository.deleteAllByIdInBatch(ids);
+                total += ids.size();
+            }
+        } while (ids.size() == purgeBatchSize);
+        if (total > 0) {
+            log.info("{} token(s) de rafraîchissement expiré(s) supprimé(s)", total);
+        }
+    }
+
+    private String issue(Utilisateur utilisateur, String familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        LocalDateTime now = LocalDateTime.now();
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(rawToken))
+                .familyId(familyId)
+                .utilisateur(utilisateur)
+                .createdAt(now)
+                .expiryDate(now.plusNanos(refreshTokenExpirationInMs * 1_000_000))
+                .build());
+        return rawToken;
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(rawToken.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    public static final class Rotation {
+        private final Utilisateur utilisateur;
+        private final String refreshToken;
+
+        private Rotation(Utilisateur utilisateur, String refreshToken) {
+            this.utilisateur = utilisateur;
+            this.refreshToken = refreshToken;
+        }
+
+        public Utilisateur getUtilisateur() {
+            return utilisateur;
+        }
+
+        public String getRefreshToken() {
+            return refreshToken;
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package cm.adcsa.auth.service;
+
+import cm.adcsa.auth.dto.UserImportReport;
+import cm.adcsa.auth.dto.UserImportRow;
+import cm.adcsa.auth.entity.Role;
+import cm.adcsa.auth.enums.StatutUtilisateur;
+import cm.adcsa.auth.exception.BusinessException;
+import cm.adcsa.auth.repository.RoleRepository;
+import cm.adcsa.auth.repository.UtilisateurRepository;
+import cm.adcsa.auth.security.BoundedPasswordEncoder;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Import en masse d'utilisateurs. Les lignes sont validées et leur unicité vérifiée par
+ * requêtes groupées, puis elles sont traitées par blocs : hachage parallèle des mots de
+ * passe sur le pool de hachage, puis insertion des utilisateurs et de leurs rôles par
+ * lots JDBC dans une transaction courte par bloc. Un bloc refusé par la base est
+ * rejoué ligne par ligne : seules les lignes fautives sont rapportées en erreur.
+ */
+@Service
+@Slf4j
+public class UserImportService {
+
+    private static final int CHUNK_SIZE = 500;
+    private static final int IN_CLAUSE_SIZE = 1000;
+
+    private static final String INSERT_UTILISATEUR =
+            "INSERT INTO \"utilisateur\" (nom, prenom, email, username, password, statut, date_creation, " +
+            "tentatives_connexion, compte_verrouille, is_first_login, security_version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, 0, FALSE, TRUE, 0)";
+    private static final String INSERT_UTILISATEUR_ROLE =
+            "INSERT INTO utilisateur_role (utilisateur_id, role_id) VALUES (?, ?)";
+
+    private final UtilisateurRepository utilisateurRepository;
+    private final RoleRepository roleRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final int maxRows;
+
+    public UserImportService(UtilisateurRepository utilisateurRepository,
+                             RoleRepository roleRepository,
+                             PasswordEncoder passwordEncoder,
+                             JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             Validator validator,
+                             @Value("${app.users.import.max-rows:100000}") int maxRows) {
+        this.utilisateurRepository = utilisateurRepository;
+        this.roleRepository = roleRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.maxRows = maxRows;
+    }
+
+    public UserImportReport importCsv(Reader reader) {
+        return importUsers(parseCsv(reader));
+    }
+
+    public UserImportReport importUsers(List<UserImportRow> rows) {
+        if (rows.size() > maxRows) {
+            throw new BusinessException("Import limité à " + maxRows + " lignes");
+        }
+        UserImportReport report = new UserImportReport();
+        report.setTotal(rows.size());
+
+        Map<String, Role> rolesByNom = roleRepository.findAll().stream()
+                .collect(Collectors.toMap(Role::getNom, Function.identity()));
+
+        // Validation et doublons internes au fichier
+        List<Integer> candidates = new ArrayList<>();
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (int i = 0; i < rows.size(); i++) {
+            UserImportRow row = rows.get(i);
+            trim(row);
+            String error = validate(row, rolesByNom);
+            if (error == null && !usernames.add(row.getUsername())) {
+                error = "Nom d'utilisateur en double dans le fichier";
+            }
+            // Les emails sont uniques sans tenir compte de la casse (index LOWER(email))
+            if (error == null && !emails.add(row.getEmail().toLowerCase(Locale.ROOT))) {
+                error = "Email en double dans le fichier";
+            }
+            if (error != null) {
+                report.getErrors().add(new UserImportReport.RowError(i + 1, row.getUsername(), error));
+            } else {
+                candidates.add(i);
+            }
+        }
+
+        // Unicité en base : quelques requêtes IN au lieu d'une par ligne
+        Set<String> existingUsernames = findExisting(usernames, utilisateurRepository::findExistingUsernames);
+        Set<String> existingEmails = findExisting(emails, utilisateurRepository::findExistingEmails);
+        List<Integer> accepted = new ArrayList<>(candidates.size());
+        for (int index : candidates) {
+            UserImportRow row = rows.get(index);
+            if (existingUsernames.contains(row.getUsername())) {
+                report.getErrors().add(new UserImportReport.RowError(index + 1, row.getUsername(), "Nom d'utilisateur déjà utilisé"));
+            } else if (existingEmails.contains(row.getEmail().toLowerCase(Locale.ROOT))) {
+                report.getErrors().add(new UserImportReport.RowError(index + 1, row.getUsername(), "Email déjà utilisé"));
+            } else {
+                accepted.add(index);
+            }
+        }
+
+        for (int start = 0; start < accepted.size(); start += CHUNK_SIZE) {
+            List<Integer> chunk = accepted.subList(start, Math.min(accepted.size(), start + CHUNK_SIZE));
+            List<UserImportRow> chunkRows = chunk.stream().map(rows::get).toList();
+            List<String> encodedPasswords = encodeAll(chunkRows);
+            try {
+                insertChunk(chunkRows, encodedPasswords, rolesByNom);
+                report.setCreated(report.getCreated() + chunk.size());
+            } catch (RuntimeException e) {
+                log.warn("Bloc de {} utilisateur(s) refusé, insertion ligne par ligne: {}", chunk.size(), e.getMessage());
+                insertRowByRow(chunk, rows, encodedPasswords, rolesByNom, report);
+            }
+        }
+
+        report.getErrors().sort((a, b) -> Integer.compare(a.getLigne(), b.getLigne()));
+        log.info("Import de {} utilisateur(s): {} créé(s), {} erreur(s)",
+                report.getTotal(), report.getCreated(), report.getErrors().size());
+        return report;
+    }
+
+    private List<String> encodeAll(List<UserImportRow> rows) {
+        List<String> rawPasswords = rows.stream().map(UserImportRow::getPassword).toList();
+        if (passwordEncoder instanceof BoundedPasswordEncoder bounded) {
+            return bounded.encodeAll(rawPasswords);
+        }
+        return rawPasswords.stream().map(passwordEncoder::encode).toList();
+    }
+
+    // Les mots de passe sont déjà hachés : la transaction ne couvre que les deux lots d'insertion
+    private void insertChunk(List<UserImportRow> rows, List<String> encodedPasswords, Map<String, Role> rolesByNom) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        transactionTemplate.executeWithoutResult(status -> {
+            GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_UTILISATEUR, new String[] {"id"}),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            UserImportRow row = rows.get(i);
+                            ps.setString(1, row.getNom());
+                            ps.setString(2, row.getPrenom());
+                            ps.setString(3, row.getEmail());
+                            ps.setString(4, row.getUsername());
+                            ps.setString(5, encodedPasswords.get(i));
+                            ps.setString(6, StatutUtilisateur.ACTIF.name());
+                            ps.setTimestamp(7, now);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return rows.size();
+                        }
+                    }, keyHolder);
+
+            List<Map<String, Object>> keys = keyHolder.getKeyList();
+            List<Object[]> roleLinks = new ArrayList<>();
+            for (int i = 0; i < rows.size(); i++) {
+                Long utilisateurId = ((Number) keys.get(i).get("id")).longValue();
+                for (String roleNom : new HashSet<>(rows.get(i).getRoles())) {
+                    roleLinks.add(new Object[] {utilisateurId, rolesByNom.get(roleNom).getId()});
+                }
+            }
+            if (!roleLinks.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_UTILISATEUR_ROLE, roleLinks);
+            }
+        });
+    }
+
+    // Une transaction par ligne : une ligne refusée n'annule pas les autres
+    private void insertRowByRow(List<Integer> chunk, List<UserImportRow> rows, List<String> encodedPasswords,
+                                Map<String, Role> rolesByNom, UserImportReport report) {
+        for (int i = 0; i < chunk.size(); i++) {
+            int index = chunk.get(i);
+            UserImportRow row = rows.get(index);
+            try {
+                insertChunk(List.of(row), List.of(encodedPasswords.get(i)), rolesByNom);
+                report.setCreated(report.getCreated() + 1);
+            } catch (RuntimeException e) {
+                log.error("Échec de l'import de la ligne {} ({}): {}", index + 1, row.getUsername(), e.getMessage());
+                report.getErrors().add(new UserImportReport.RowError(index + 1, row.getUsername(), insertError(e)));
+            }
+        }
+    }
+
+    // Le message de la base (requête, contraintes) reste dans les logs
+    private static String insertError(RuntimeException e) {
+        if (e instanceof DataIntegrityViolationException) {
+            return "Nom d'utilisateur ou email déjà utilisé";
+        }
+        return "Insertion impossible";
+    }
+
+    private String validate(UserImportRow row, Map<String, Role> rolesByNom) {
+        Set<ConstraintViolation<UserImportRow>> violations = validator.validate(row);
+        if (!violations.isEmpty()) {
+            return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining(", "));
+        }
+        for (String roleNom : row.getRoles()) {
+            if (!rolesByNom.containsKey(roleNom)) {
+                return "Rôle inconnu: " + roleNom;
+            }
+        }
+        return null;
+    }
+
+    private static void trim(UserImportRow row) {
+        row.setNom(trim(row.getNom()));
+        row.setPrenom(trim(row.getPrenom()));
+        row.setEmail(trim(row.getEmail()));
+        row.setUsername(trim(row.getUsername()));
+        if (row.getRoles() == null) {
+            row.setRoles(new ArrayList<>());
+        }
+        row.getRoles().replaceAll(UserImportService::trim);
+        row.getRoles().removeIf(role -> role == null || role.isEmpty());
+    }
+
+    private static String trim(String value) {
+        return value == null ? null : value.trim();
+    }
+
+    private static Set<String> findExisting(Set<String> values, Function<List<String>, List<String>> query) {
+        Set<String> existing = new HashSet<>();
+        List<String> all = new ArrayList<>(values);
+        for (int start = 0; start < all.size(); start += IN_CLAUSE_SIZE) {
+            existing.addAll(query.apply(all.subList(start, Math.min(all.size(), start + IN_CLAUSE_SIZE))));
+        }
+        return existing;
+    }
+
+    /**
+     * CSV avec en-tête (nom, prenom, email, username, password, roles) ; les rôles d'une
+     * ligne sont séparés par « | ». Les champs peuvent être entre guillemets.
+     */
+    private List<UserImportRow> parseCsv(Reader reader) {
+        try (BufferedReader in = new BufferedReader(reader)) {
+            List<String> header = readCsvRecord(in);
+            if (header == null) {
+                return List.of();
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim().toLowerCase(), i);
+            }
+            for (String required : List.of("nom", "prenom", "email", "username", "password")) {
+                if (!columns.containsKey(required)) {
+                    throw new BusinessException("Colonne manquante dans le fichier CSV: " + required);
+                }
+            }
+
+            List<UserImportRow> rows = new ArrayList<>();
+            List<String> record;
+            while ((record = readCsvRecord(in)) != null) {
+                if (record.size() == 1 && record.get(0).isBlank()) {
+                    continue;
+                }
+                if (rows.size() == maxRows) {
+                    throw new BusinessException("Import limité à " + maxRows + " lignes");
+                }
+                UserImportRow row = new UserImportRow();
+                row.setNom(column(record, columns, "nom"));
+                row.setPrenom(column(record, columns, "prenom"));
+                row.setEmail(column(record, columns, "email"));
+                row.setUsername(column(record, columns, "username"));
+                row.setPassword(column(record, columns, "password"));
+                String roles = column(record, columns, "roles");
+                if (roles != null && !roles.isBlank()) {
+                    row.setRoles(new ArrayList<>(Arrays.asList(roles.split("\\|"))));
+                }
+                rows.add(row);
+            }
+            return rows;
+        } catch (IOException e) {
+            throw new BusinessException("Lecture du fichier CSV impossible", e);
+        }
+    }
+
+    private static String column(List<String> record, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        return index != null && index < record.size() ? record.get(index) : null;
+    }
+
+    // Un enregistrement CSV (RFC 4180) ; null en fin de flux
+    private static List<String> readCsvRecord(BufferedReader in) throws IOException {
+        int c = in.read();
+        if (c < 0) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (c >= 0) {
+            if (quoted) {
+                if (c == '"') {
+                    in.mark(1);
+                    int next = in.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        in.reset();
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = in.read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
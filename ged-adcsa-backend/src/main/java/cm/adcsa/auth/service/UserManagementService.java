@@ -1,68 +1,188 @@
 package cm.adcsa.auth.service;
 
+import cm.adcsa.auth.config.StatementBudget;
 import cm.adcsa.auth.dto.*;
 import cm.adcsa.auth.entity.Role;
 import cm.adcsa.auth.entity.Utilisateur;
+import cm.adcsa.auth.enums.ExportFormat;
+import cm.adcsa.auth.enums.Permission;
 import cm.adcsa.auth.enums.StatutUtilisateur;
+import cm.adcsa.auth.enums.UserSortField;
+import cm.adcsa.auth.exception.BusinessException;
+import cm.adcsa.auth.repository.RefreshTokenRepository;
 import cm.adcsa.auth.repository.RoleRepository;
 import cm.adcsa.auth.repository.UtilisateurRepository;
+import cm.adcsa.auth.security.PermissionRegistry;
+import cm.adcsa.auth.security.PrincipalChangedEvent;
+import cm.adcsa.auth.security.SecurityVersionRegistry;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class UserManagementService {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int EXPORT_CHUNK_SIZE = 500;
+    private static final String MISSING_ASSOCIATION =
+            "NOT EXISTS (SELECT 1 FROM utilisateur_role ur WHERE ur.utilisateur_id = u.id AND ur.role_id = r.id)";
+    private static final String CSV_HEADER = "id,username,nom,prenom,email,statut,derniere_connexion,date_creation," +
+            "date_modification,compte_verrouille,is_first_login,roles\r\n";
+
     private final UtilisateurRepository utilisateurRepository;
     private final RoleRepository roleRepository;
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final RefreshTokenService refreshTokenService;
     private final PasswordEncoder passwordEncoder;
+    private final SecurityVersionRegistry securityVersionRegistry;
+    private final PermissionRegistry permissionRegistry;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
 
-    @Transactional
+    @Value("${spring.datasource.url}")
+    private String datasourceUrl;
+
+    // Le hachage est fait avant d'ouvrir la transaction : aucune connexion n'est retenue pendant le calcul
     public UserResponse createUser(UserCreateRequest request) {
+        String encodedPassword = passwordEncoder.encode(request.getPassword());
+
         Utilisateur utilisateur = new Utilisateur();
         utilisateur.setNom(request.getNom());
         utilisateur.setPrenom(request.getPrenom());
         utilisateur.setEmail(request.getEmail());
         utilisateur.setUsername(request.getUsername());
-        utilisateur.setPassword(passwordEncoder.encode(request.getPassword()));
+        utilisateur.setPassword(encodedPassword);
         utilisateur.setStatut(StatutUtilisateur.ACTIF);
         utilisateur.setIsFirstLogin(true);
 
-        return mapToUserResponse(utilisateurRepository.save(utilisateur));
+        return transactionTemplate.execute(status -> mapToUserResponse(utilisateurRepository.save(utilisateur)));
     }
 
-    public List<UserResponse> getAllUsers() {
-        return utilisateurRepository.findAll().stream()
-                .map(this::mapToUserResponse)
+    /**
+     * Liste paginée par clé : seules les colonnes affichées sont lues, puis les rôles de
+     * la page en une seconde requête.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<UserResponse> searchUsers(UserSearchCriteria criteria) {
+        UserSortField sort;
+        try {
+            sort = UserSortField.fromProperty(criteria.getSort());
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException(e.getMessage());
+        }
+        boolean descending = "desc".equalsIgnoreCase(criteria.getDirection());
+        int size = criteria.getSize() == null ? DEFAULT_PAGE_SIZE
+                : Math.max(1, Math.min(MAX_PAGE_SIZE, criteria.getSize()));
+
+        Object afterValue = null;
+        Long afterId = null;
+        if (criteria.getCursor() != null && !criteria.getCursor().isBlank()) {
+            try {
+                String[] position = new String(Base64.getUrlDecoder().decode(criteria.getCursor()),
+                        StandardCharsets.UTF_8).split(":", 2);
+                afterId = Long.valueOf(position[0]);
+                afterValue = sort.parse(position[1]);
+            } catch (RuntimeException e) {
+                throw new BusinessException("Curseur de pagination invalide");
+            }
+        }
+
+        // Une ligne de plus que demandé indique s'il existe une page suivante
+        List<UserSummary> rows = utilisateurRepository.search(criteria, sort, descending, afterValue, afterId, size + 1);
+        boolean hasNext = rows.size() > size;
+        if (hasNext) {
+            rows = rows.subList(0, size);
+        }
+
+        Map<Long, Set<RoleResponse>> rolesByUser = loadRoles(rows);
+        List<UserResponse> items = rows.stream()
+                .map(row -> mapToUserResponse(row, rolesByUser.getOrDefault(row.id(), Set.of())))
                 .collect(Collectors.toList());
+        String nextCursor = null;
+        if (hasNext) {
+            UserSummary last = rows.get(rows.size() - 1);
+            nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                    (last.id() + ":" + sort.valueOf(last)).getBytes(StandardCharsets.UTF_8));
+        }
+        return new CursorPage<>(items, nextCursor, hasNext);
     }
 
+    @Transactional(readOnly = true)
+    // Utilisateur et rôles en une requête (graphe Utilisateur.WITH_ROLES)
+    @StatementBudget(value = "admin-user-view", max = 1)
     public UserResponse getUserById(Long id) {
-        return utilisateurRepository.findById(id)
+        return utilisateurRepository.findWithRolesById(id)
                 .map(this::mapToUserResponse)
                 .orElseThrow(() -> new EntityNotFoundException("Utilisateur non trouvé avec l'id: " + id));
     }
 
-    @Transactional
     public UserResponse updateUser(Long id, UserCreateRequest request) {
-        Utilisateur utilisateur = utilisateurRepository.findById(id)
+        String encodedPassword = request.getPassword() != null && !request.getPassword().isEmpty()
+                ? passwordEncoder.encode(request.getPassword())
+                : null;
+
+        return transactionTemplate.execute(status -> {
+            Utilisateur utilisateur = utilisateurRepository.findWithRolesById(id)
+                    .orElseThrow(() -> new EntityNotFoundException("Utilisateur non trouvé avec l'id: " + id));
+
+            utilisateur.setNom(request.getNom());
+            utilisateur.setPrenom(request.getPrenom());
+            utilisateur.setEmail(request.getEmail());
+            utilisateur.setUsername(request.getUsername());
+            if (encodedPassword != null) {
+                utilisateur.setPassword(encodedPassword);
+            }
+
+            return mapToUserResponse(saveWithNewSecurityVersion(utilisateur));
+        });
+    }
+
+    @Transactional
+    public UserResponse updateUserStatus(Long id, StatutUtilisateur statut) {
+        Utilisateur utilisateur = utilisateurRepository.findWithRolesById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Utilisateur non trouvé avec l'id: " + id));
 
-        utilisateur.setNom(request.getNom());
-        utilisateur.setPrenom(request.getPrenom());
-        utilisateur.setEmail(request.getEmail());
-        utilisateur.setUsername(request.getUsername());
-        if (request.getPassword() != null && !request.getPassword().isEmpty()) {
-            utilisateur.setPassword(passwordEncoder.encode(request.getPassword()));
+        utilisateur.setStatut(statut);
+        if (!statut.isActif()) {
+            // Compte désactivé : aucun token de rafraîchissement ne doit pouvoir en émettre d'autres
+            refreshTokenService.revokeAll(id);
         }
-
-        return mapToUserResponse(utilisateurRepository.save(utilisateur));
+        return mapToUserResponse(saveWithNewSecurityVersion(utilisateur));
     }
 
     @Transactional
@@ -70,7 +190,10 @@ public class UserManagementService {
         if (!utilisateurRepository.existsById(id)) {
             throw new EntityNotFoundException("Utilisateur non trouvé avec l'id: " + id);
         }
+        refreshTokenRepository.deleteByUtilisateurId(id);
         utilisateurRepository.deleteById(id);
+        securityVersionRegistry.revoke(id);
+        eventPublisher.publishEvent(PrincipalChangedEvent.ofUser(id));
     }
 
     @Transactional
@@ -81,6 +204,7 @@ public class UserManagementService {
         return mapToRoleResponse(roleRepository.save(role));
     }
 
+    @Transactional(readOnly = true)
     public List<RoleResponse> getAllRoles() {
         return roleRepository.findAll().stream()
                 .map(this::mapToRoleResponse)
@@ -89,24 +213,134 @@ public class UserManagementService {
 
     @Transactional
     public UserResponse assignRoleToUser(Long userId, Long roleId) {
-        Utilisateur utilisateur = utilisateurRepository.findById(userId)
+        Utilisateur utilisateur = utilisateurRepository.findWithRolesById(userId)
                 .orElseThrow(() -> new EntityNotFoundException("Utilisateur non trouvé avec l'id: " + userId));
         Role role = roleRepository.findById(roleId)
                 .orElseThrow(() -> new EntityNotFoundException("Rôle non trouvé avec l'id: " + roleId));
 
-        utilisateur.getRoles().add(role);
-        return mapToUserResponse(utilisateurRepository.save(utilisateur));
+        utilisateur.addRole(role);
+        return mapToUserResponse(saveWithNewSecurityVersion(utilisateur));
     }
 
     @Transactional
     public UserResponse removeRoleFromUser(Long userId, Long roleId) {
-        Utilisateur utilisateur = utilisateurRepository.findById(userId)
+        Utilisateur utilisateur = utilisateurRepository.findWithRolesById(userId)
                 .orElseThrow(() -> new EntityNotFoundException("Utilisateur non trouvé avec l'id: " + userId));
         Role role = roleRepository.findById(roleId)
                 .orElseThrow(() -> new EntityNotFoundException("Rôle non trouvé avec l'id: " + roleId));
 
-        utilisateur.getRoles().remove(role);
-        return mapToUserResponse(utilisateurRepository.save(utilisateur));
+        utilisateur.removeRole(role);
+        return mapToUserResponse(saveWithNewSecurityVersion(utilisateur));
+    }
+
+    @Transactional(readOnly = true)
+    public Set<Permission> getRolePermissions(Long roleId) {
+        Role role = roleRepository.findById(roleId)
+                .orElseThrow(() -> new EntityNotFoundException("Rôle non trouvé avec l'id: " + roleId));
+        return copyOf(role.getPermissions());
+    }
+
+    /**
+     * Remplace les permissions d'un rôle. Les masques sont recompilés après validation de
+     * la transaction et les tokens des titulaires du rôle sont invalidés, leur masque
+     * étant figé dans le token.
+     */
+    public Set<Permission> updateRolePermissions(Long roleId, Set<Permission> permissions) {
+        Set<Permission> updated = transactionTemplate.execute(status -> {
+            Role role = roleRepository.findById(roleId)
+                    .orElseThrow(() -> new EntityNotFoundException("Rôle non trouvé avec l'id: " + roleId));
+            role.getPermissions().clear();
+            role.getPermissions().addAll(permissions);
+            roleRepository.save(role);
+            // Titulaires directs et membres des groupes (et sous-groupes) qui portent le rôle
+            List<Long> holders = jdbcTemplate.queryForList(
+                    "SELECT utilisateur_id FROM utilisateur_role WHERE role_id = :roleId " +
+                    "UNION " +
+                    "SELECT ug.utilisateur_id FROM groupe_role gr " +
+                    "JOIN groupe_closure gc ON gc.ancetre_id = gr.groupe_id " +
+                    "JOIN utilisateur_groupe ug ON ug.groupe_id = gc.descendant_id " +
+                    "WHERE gr.role_id = :roleId",
+                    new MapSqlParameterSource("roleId", roleId), Long.class);
+            if (!holders.isEmpty()) {
+                securityVersionRegistry.increment(holders);
+                eventPublisher.publishEvent(PrincipalChangedEvent.ofUsers(holders));
+            }
+            return copyOf(role.getPermissions());
+        });
+        permissionRegistry.reloadAll();
+        return updated;
+    }
+
+    /**
+     * Attribue chaque rôle à chaque utilisateur en une requête ensembliste ; les
+     * associations existantes et les identifiants inconnus sont ignorés.
+     */
+    @Transactional
+    public BulkRoleResponse assignRoles(BulkRoleRequest request) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("userIds", request.getUserIds())
+                .addValue("roleIds", request.getRoleIds());
+        List<Long> affected = jdbcTemplate.queryForList(
+                "SELECT DISTINCT u.id FROM \"utilisateur\" u CROSS JOIN role r " +
+                "WHERE u.id IN (:userIds) AND r.id IN (:roleIds) AND " + MISSING_ASSOCIATION, parameters, Long.class);
+        if (affected.isEmpty()) {
+            return new BulkRoleResponse(0, 0);
+        }
+        int inserted = jdbcTemplate.update(insertMissingAssociations(
+                "SELECT u.id, r.id FROM \"utilisateur\" u CROSS JOIN role r " +
+                "WHERE u.id IN (:userIds) AND r.id IN (:roleIds) AND " + MISSING_ASSOCIATION), parameters);
+        // Seuls les utilisateurs dont les rôles ont effectivement changé voient leurs tokens invalidés
+        securityVersionRegistry.increment(affected);
+        eventPublisher.publishEvent(PrincipalChangedEvent.ofUsers(affected));
+        return new BulkRoleResponse(inserted, affected.size());
+    }
+
+    /**
+     * Insertion des associations manquantes qui tolère une attribution concurrente : le
+     * filtre NOT EXISTS ne protège pas de deux transactions qui insèrent la même paire.
+     */
+    private String insertMissingAssociations(String select) {
+        switch (DatabaseDriver.fromJdbcUrl(datasourceUrl)) {
+            case POSTGRESQL:
+                return "INSERT INTO utilisateur_role (utilisateur_id, role_id) " + select + " ON CONFLICT DO NOTHING";
+            case H2:
+                return "MERGE INTO utilisateur_role (utilisateur_id, role_id) KEY (utilisateur_id, role_id) " + select;
+            default:
+                return "INSERT INTO utilisateur_role (utilisateur_id, role_id) " + select;
+        }
+    }
+
+    @Transactional
+    public BulkRoleResponse revokeRoles(BulkRoleRequest request) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource()
+                .addValue("userIds", request.getUserIds())
+                .addValue("roleIds", request.getRoleIds());
+        List<Long> affected = jdbcTemplate.queryForList(
+                "SELECT DISTINCT utilisateur_id FROM utilisateur_role " +
+                "WHERE utilisateur_id IN (:userIds) AND role_id IN (:roleIds)", parameters, Long.class);
+        if (affected.isEmpty()) {
+            return new BulkRoleResponse(0, 0);
+        }
+        int deleted = jdbcTemplate.update(
+                "DELETE FROM utilisateur_role WHERE utilisateur_id IN (:userIds) AND role_id IN (:roleIds)", parameters);
+        securityVersionRegistry.increment(affected);
+        eventPublisher.publishEvent(PrincipalChangedEvent.ofUsers(affected));
+        return new BulkRoleResponse(deleted, affected.size());
+    }
+
+    private static Set<Permission> copyOf(Set<Permission> permissions) {
+        Set<Permission> copy = EnumSet.noneOf(Permission.class);
+        copy.addAll(permissions);
+        return copy;
+    }
+
+    // Les tokens émis avant ce changement ne suffisent plus à reconstruire le principal
+    private Utilisateur saveWithNewSecurityVersion(Utilisateur utilisateur) {
+        long version = utilisateur.incrementSecurityVersion();
+        Utilisateur saved = utilisateurRepository.save(utilisateur);
+        securityVersionRegistry.record(saved.getId(), version);
+        eventPublisher.publishEvent(PrincipalChangedEvent.ofUser(saved.getId()));
+        return saved;
     }
 
     private UserResponse mapToUserResponse(Utilisateur utilisateur) {
@@ -128,6 +362,107 @@ public class UserManagementService {
         return response;
     }
 
+    /**
+     * Export complet en flux : les utilisateurs sont lus par curseur et écrits par blocs,
+     * les rôles étant chargés bloc par bloc. La mémoire utilisée ne dépend pas du nombre
+     * d'utilisateurs.
+     */
+    public void exportUsers(ExportFormat format, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        ObjectWriter jsonWriter = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        if (format == ExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+        }
+
+        readOnlyTransactionTemplate.executeWithoutResult(status -> {
+            try (Stream<UserSummary> summaries = utilisateurRepository.streamAllSummaries()) {
+                List<UserSummary> chunk = new ArrayList<>(EXPORT_CHUNK_SIZE);
+                Iterator<UserSummary> iterator = summaries.iterator();
+                while (iterator.hasNext()) {
+                    chunk.add(iterator.next());
+                    if (chunk.size() == EXPORT_CHUNK_SIZE || !iterator.hasNext()) {
+                        writeChunk(format, chunk, writer, jsonWriter);
+                        chunk.clear();
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+    }
+
+    private void writeChunk(ExportFormat format, List<UserSummary> chunk, Writer writer, ObjectWriter jsonWriter)
+            throws IOException {
+        Map<Long, Set<RoleResponse>> rolesByUser = loadRoles(chunk);
+        for (UserSummary summary : chunk) {
+            Set<RoleResponse> roles = rolesByUser.getOrDefault(summary.id(), Set.of());
+            if (format == ExportFormat.CSV) {
+                writeCsvLine(writer, summary, roles);
+            } else {
+                jsonWriter.writeValue(writer, mapToUserResponse(summary, roles));
+                writer.write('\n');
+            }
+        }
+        // Chaque bloc est envoyé au client sans attendre la fin de l'export
+        writer.flush();
+    }
+
+    private static void writeCsvLine(Writer writer, UserSummary summary, Set<RoleResponse> roles) throws IOException {
+        String roleNames = roles.stream().map(RoleResponse::getNom).sorted().collect(Collectors.joining("|"));
+        Object[] values = {summary.id(), summary.username(), summary.nom(), summary.prenom(), summary.email(),
+                summary.statut(), summary.derniereConnexion(), summary.dateCreation(), summary.dateModification(),
+                summary.compteVerrouille(), summary.isFirstLogin(), roleNames};
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(csvField(values[i]));
+        }
+        writer.write("\r\n");
+    }
+
+    private static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    // Rôles d'un ensemble d'utilisateurs, en une requête
+    private Map<Long, Set<RoleResponse>> loadRoles(List<UserSummary> summaries) {
+        Map<Long, Set<RoleResponse>> rolesByUser = new HashMap<>();
+        for (UserRoleRow row : utilisateurRepository.findRoleRows(summaries.stream().map(UserSummary::id).toList())) {
+            RoleResponse role = new RoleResponse();
+            role.setId(row.roleId());
+            role.setNom(row.nom());
+            role.setDescription(row.description());
+            rolesByUser.computeIfAbsent(row.utilisateurId(), id -> new HashSet<>()).add(role);
+        }
+        return rolesByUser;
+    }
+
+    private UserResponse mapToUserResponse(UserSummary summary, Set<RoleResponse> roles) {
+        UserResponse response = new UserResponse();
+        response.setId(summary.id());
+        response.setNom(summary.nom());
+        response.setPrenom(summary.prenom());
+        response.setEmail(summary.email());
+        response.setUsername(summary.username());
+        response.setStatut(summary.statut());
+        response.setDerniereConnexion(summary.derniereConnexion());
+        response.setDateCreation(summary.dateCreation());
+        response.setDateModification(summary.dateModification());
+        response.setCompteVerrouille(summary.compteVerrouille());
+        response.setIsFirstLogin(summary.isFirstLogin());
+        response.setRoles(roles);
+        return response;
+    }
+
     private RoleResponse mapToRoleResponse(Role role) {
         RoleResponse response = new RoleResponse();
         response.setId(role.getId());
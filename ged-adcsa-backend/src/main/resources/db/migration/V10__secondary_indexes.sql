@@ -0,0 +1,15 @@
+-- Alignement du schéma sur les entités
+-- Historique des mots de passe : l'entité lit changed_at
+ALTER TABLE utilisateur_password_history RENAME COLUMN date_creation TO changed_at;
+-- Tokens de réinitialisation : indicateur d'utilisation porté par l'entité
+ALTER TABLE password_reset_token ADD COLUMN used BOOLEAN DEFAULT FALSE NOT NULL;
+
+-- Tokens de réinitialisation et historique d'un utilisateur (clés étrangères non indexées)
+CREATE INDEX idx_password_reset_token_utilisateur ON password_reset_token (utilisateur_id, date_expiration);
+CREATE INDEX idx_password_history_utilisateur ON utilisateur_password_history (utilisateur_id, changed_at);
+CREATE INDEX idx_password_reset_token_expiration ON password_reset_token (date_expiration);
+
+-- Tâches d'expiration : findByPasswordChangedAtBefore, findExpiredFirstLogins
+-- (statut et utilisateur_role(role_id) sont indexés depuis V7)
+CREATE INDEX idx_utilisateur_password_changed_at ON "utilisateur" (password_changed_at);
+CREATE INDEX idx_utilisateur_first_login_expires_at ON "utilisateur" (first_login_expires_at);
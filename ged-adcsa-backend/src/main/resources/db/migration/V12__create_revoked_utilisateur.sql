@@ -0,0 +1,9 @@
+-- Utilisateurs supprimés dont les tokens d'accès peuvent encore circuler : conservés
+-- jusqu'à l'expiration du dernier token émis, relus au démarrage de chaque instance
+CREATE TABLE revoked_utilisateur (
+    utilisateur_id BIGINT PRIMARY KEY,
+    expires_at TIMESTAMP NOT NULL,
+    revoked_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_revoked_utilisateur_expires_at ON revoked_utilisateur (expires_at);
@@ -0,0 +1,11 @@
+-- Paramètres de hachage calibrés, partagés par toutes les instances : la première qui
+-- démarre les mesure, les suivantes les reprennent
+CREATE TABLE password_hash_calibration (
+    algorithm VARCHAR(16) PRIMARY KEY,
+    bcrypt_cost INTEGER NOT NULL,
+    argon2_memory_kib INTEGER NOT NULL,
+    argon2_iterations INTEGER NOT NULL,
+    argon2_parallelism INTEGER NOT NULL,
+    pbkdf2_iterations INTEGER NOT NULL,
+    calibrated_at TIMESTAMP NOT NULL
+);
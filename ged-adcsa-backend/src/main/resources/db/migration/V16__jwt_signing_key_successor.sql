@@ -0,0 +1,5 @@
+-- Une seule clé peut succéder à une clé donnée : les instances qui décident en même
+-- temps d'une rotation se disputent cette place, la première insertion l'emporte.
+-- '' désigne la première clé d'un algorithme ; les clés existantes restent à NULL.
+ALTER TABLE jwt_signing_key ADD COLUMN predecessor_kid VARCHAR(64);
+CREATE UNIQUE INDEX uk_jwt_signing_key_successor ON jwt_signing_key (algorithm, predecessor_kid);
@@ -0,0 +1,3 @@
+-- Version de sécurité par utilisateur : incrémentée à chaque changement de rôles,
+-- de statut ou d'identifiants pour invalider les tokens sans état déjà émis
+ALTER TABLE "utilisateur" ADD COLUMN security_version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,12 @@
+-- Trousseau de clés de signature JWT (RS256/EdDSA), partagé entre les instances
+CREATE TABLE jwt_signing_key (
+    kid VARCHAR(64) PRIMARY KEY,
+    algorithm VARCHAR(20) NOT NULL,
+    public_key VARCHAR(4096) NOT NULL,
+    private_key VARCHAR(4096) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    activates_at TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_jwt_signing_key_expires_at ON jwt_signing_key (expires_at);
@@ -0,0 +1,9 @@
+-- Les tokens de rafraîchissement sont stockés hachés (SHA-256), regroupés par famille de rotation
+ALTER TABLE refresh_token RENAME COLUMN token TO token_hash;
+ALTER TABLE refresh_token ADD COLUMN family_id VARCHAR(36) NOT NULL;
+ALTER TABLE refresh_token ADD COLUMN used_at TIMESTAMP;
+ALTER TABLE refresh_token ADD COLUMN revoked BOOLEAN DEFAULT FALSE NOT NULL;
+
+CREATE INDEX idx_refresh_token_family ON refresh_token (family_id);
+CREATE INDEX idx_refresh_token_expiry ON refresh_token (expiry_date);
+CREATE INDEX idx_refresh_token_utilisateur ON refresh_token (utilisateur_id);
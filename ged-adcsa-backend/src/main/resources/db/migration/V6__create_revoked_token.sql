@@ -0,0 +1,9 @@
+-- Identifiants (jti) des tokens d'accès révoqués, conservés jusqu'à leur expiration
+CREATE TABLE revoked_token (
+    jti VARCHAR(36) PRIMARY KEY,
+    utilisateur_id BIGINT,
+    expires_at TIMESTAMP NOT NULL,
+    revoked_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_revoked_token_expires_at ON revoked_token (expires_at);
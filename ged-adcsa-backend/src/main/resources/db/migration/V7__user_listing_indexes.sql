@@ -0,0 +1,7 @@
+-- Tri et pagination par clé de la liste des utilisateurs (username et email sont déjà uniques)
+CREATE INDEX idx_utilisateur_nom_id ON "utilisateur" (nom, id);
+CREATE INDEX idx_utilisateur_date_creation_id ON "utilisateur" (date_creation, id);
+CREATE INDEX idx_utilisateur_statut ON "utilisateur" (statut);
+
+-- Filtre par rôle : recherche des utilisateurs d'un rôle donné
+CREATE INDEX idx_utilisateur_role_role ON utilisateur_role (role_id, utilisateur_id);
@@ -0,0 +1,21 @@
+-- Permissions fines par rôle, compilées en masque de bits dans le principal et les tokens
+CREATE TABLE role_permission (
+    role_id BIGINT NOT NULL,
+    permission VARCHAR(50) NOT NULL,
+    PRIMARY KEY (role_id, permission),
+    FOREIGN KEY (role_id) REFERENCES role(id) ON DELETE CASCADE
+);
+
+INSERT INTO role_permission (role_id, permission) SELECT id, 'USER_READ' FROM role WHERE nom = 'ADMIN';
+INSERT INTO role_permission (role_id, permission) SELECT id, 'USER_WRITE' FROM role WHERE nom = 'ADMIN';
+INSERT INTO role_permission (role_id, permission) SELECT id, 'ROLE_MANAGE' FROM role WHERE nom = 'ADMIN';
+INSERT INTO role_permission (role_id, permission) SELECT id, 'DOCUMENT_READ' FROM role WHERE nom = 'ADMIN';
+INSERT INTO role_permission (role_id, permission) SELECT id, 'DOCUMENT_WRITE' FROM role WHERE nom = 'ADMIN';
+INSERT INTO role_permission (role_id, permission) SELECT id, 'DOCUMENT_VALIDATE' FROM role WHERE nom = 'ADMIN';
+INSERT INTO role_permission (role_id, permission) SELECT id, 'DOCUMENT_ARCHIVE' FROM role WHERE nom = 'ADMIN';
+
+INSERT INTO role_permission (role_id, permission) SELECT id, 'DOCUMENT_READ' FROM role WHERE nom = 'VALIDATEUR';
+INSERT INTO role_permission (role_id, permission) SELECT id, 'DOCUMENT_VALIDATE' FROM role WHERE nom = 'VALIDATEUR';
+
+INSERT INTO role_permission (role_id, permission) SELECT id, 'DOCUMENT_READ' FROM role WHERE nom = 'CONTRIBUTEUR';
+INSERT INTO role_permission (role_id, permission) SELECT id, 'DOCUMENT_WRITE' FROM role WHERE nom = 'CONTRIBUTEUR';
@@ -0,0 +1,39 @@
+-- Groupes (directions, services, bureaux) imbriqués et porteurs de rôles
+CREATE TABLE groupe (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    nom VARCHAR(100) NOT NULL UNIQUE,
+    description VARCHAR(255),
+    parent_id BIGINT,
+    date_creation TIMESTAMP NOT NULL,
+    FOREIGN KEY (parent_id) REFERENCES groupe(id)
+);
+
+-- Table de fermeture : une ligne par couple (ancêtre, descendant), y compris (g, g) à la profondeur 0
+CREATE TABLE groupe_closure (
+    ancetre_id BIGINT NOT NULL,
+    descendant_id BIGINT NOT NULL,
+    profondeur INT NOT NULL,
+    PRIMARY KEY (ancetre_id, descendant_id),
+    FOREIGN KEY (ancetre_id) REFERENCES groupe(id) ON DELETE CASCADE,
+    FOREIGN KEY (descendant_id) REFERENCES groupe(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_groupe_closure_descendant ON groupe_closure (descendant_id, ancetre_id);
+
+CREATE TABLE groupe_role (
+    groupe_id BIGINT NOT NULL,
+    role_id BIGINT NOT NULL,
+    PRIMARY KEY (groupe_id, role_id),
+    FOREIGN KEY (groupe_id) REFERENCES groupe(id) ON DELETE CASCADE,
+    FOREIGN KEY (role_id) REFERENCES role(id) ON DELETE CASCADE
+);
+
+CREATE TABLE utilisateur_groupe (
+    utilisateur_id BIGINT NOT NULL,
+    groupe_id BIGINT NOT NULL,
+    PRIMARY KEY (utilisateur_id, groupe_id),
+    FOREIGN KEY (utilisateur_id) REFERENCES "utilisateur"(id) ON DELETE CASCADE,
+    FOREIGN KEY (groupe_id) REFERENCES groupe(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_utilisateur_groupe_groupe ON utilisateur_groupe (groupe_id);
@@ -0,0 +1,98 @@
+package cm.adcsa.auth.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Export en flux sur un vrai serveur : la réponse se termine dans un dispatch ASYNC,
+ * qui doit rester autorisé jusqu'à la dernière ligne.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:user-export;DB_CLOSE_DELAY=-1",
+        "spring.datasource.password="
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class UserExportTest {
+
+    private static final int EXTRA_USERS = 2_500;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private int userCount;
+
+    @BeforeAll
+    void insertUsers() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(EXTRA_USERS);
+        for (int i = 0; i < EXTRA_USERS; i++) {
+            rows.add(new Object[] {"Export", "Utilisateur" + i, "export" + i + "@adcsa.cm", "export" + i, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO \"utilisateur\" (nom, prenom, email, username, password, statut, " +
+                "date_creation) VALUES (?, ?, ?, ?, 'x', 'ACTIF', ?)", rows);
+        userCount = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM \"utilisateur\"", Integer.class);
+    }
+
+    @Test
+    void csvExportIsComplete() throws Exception {
+        ResponseEntity<String> response = export("csv");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        // En-tête plus une ligne par utilisateur
+        assertThat(response.getBody().split("\n")).hasSize(userCount + 1);
+    }
+
+    @Test
+    void ndjsonExportIsComplete() throws Exception {
+        ResponseEntity<String> response = export("ndjson");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        String[] lines = response.getBody().split("\n");
+        assertThat(lines).hasSize(userCount);
+        assertThat(objectMapper.readTree(lines[lines.length - 1]).get("username").asText()).isNotEmpty();
+    }
+
+    private ResponseEntity<String> export(String format) throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(login());
+        return restTemplate.exchange("/api/users/export?format={format}", HttpMethod.GET,
+                new HttpEntity<>(headers), String.class, format);
+    }
+
+    private String login() throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        ResponseEntity<String> response = restTemplate.postForEntity("/auth/login",
+                new HttpEntity<>(Map.of("username", "admin", "password", "password123"), headers), String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JsonNode body = objectMapper.readTree(response.getBody());
+        return body.get("accessToken").asText();
+    }
+}
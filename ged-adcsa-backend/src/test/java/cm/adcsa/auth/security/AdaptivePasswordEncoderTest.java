@@ -0,0 +1,67 @@
+package cm.adcsa.auth.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hashes PBKDF2 vérifiés avec les itérations portées par leur identifiant, quelles que
+ * soient les itérations courantes.
+ */
+class AdaptivePasswordEncoderTest {
+
+    private static final String PASSWORD = "Password123!";
+
+    @Test
+    void pbkdf2HashSurvivesIterationChange() {
+        String hash = pbkdf2Encoder(1_000).encode(PASSWORD);
+        assertThat(hash).startsWith("{pbkdf2-1000}");
+
+        AdaptivePasswordEncoder recalibrated = pbkdf2Encoder(2_000);
+        assertThat(recalibrated.matches(PASSWORD, hash)).isTrue();
+        assertThat(recalibrated.matches("autre", hash)).isFalse();
+        assertThat(recalibrated.upgradeEncoding(hash)).isTrue();
+    }
+
+    @Test
+    void strongerPbkdf2HashIsKept() {
+        String hash = pbkdf2Encoder(2_000).encode(PASSWORD);
+
+        AdaptivePasswordEncoder weaker = pbkdf2Encoder(1_000);
+        assertThat(weaker.matches(PASSWORD, hash)).isTrue();
+        assertThat(weaker.upgradeEncoding(hash)).isFalse();
+    }
+
+    @Test
+    void legacyPbkdf2HashIsVerifiedWithCurrentIterationsThenUpgraded() {
+        String hash = "{pbkdf2}" + pbkdf2(1_000).encode(PASSWORD);
+
+        AdaptivePasswordEncoder encoder = pbkdf2Encoder(1_000);
+        assertThat(encoder.matches(PASSWORD, hash)).isTrue();
+        assertThat(encoder.upgradeEncoding(hash)).isTrue();
+    }
+
+    private static AdaptivePasswordEncoder pbkdf2Encoder(int iterations) {
+        PasswordHashParameters parameters = PasswordHashParameters.builder()
+                .algorithm(PasswordHashParameters.PBKDF2)
+                .bcryptCost(4)
+                .pbkdf2Iterations(iterations)
+                .build();
+        String id = AdaptivePasswordEncoder.pbkdf2Id(iterations);
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put(PasswordHashParameters.PBKDF2, pbkdf2(iterations));
+        encoders.put(id, pbkdf2(iterations));
+        return new AdaptivePasswordEncoder(id, encoders, new BCryptPasswordEncoder(4), parameters,
+                AdaptivePasswordEncoderTest::pbkdf2);
+    }
+
+    private static PasswordEncoder pbkdf2(int iterations) {
+        return new Pbkdf2PasswordEncoder("", 16, iterations, Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256);
+    }
+}
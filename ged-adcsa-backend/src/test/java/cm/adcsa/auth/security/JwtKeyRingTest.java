@@ -0,0 +1,50 @@
+package cm.adcsa.auth.security;
+
+import cm.adcsa.auth.repository.JwtSigningKeyRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Deux instances qui décident en même temps de créer une clé de signature : une seule
+ * clé est enregistrée et les deux signent avec elle.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:jwt-key-ring;DB_CLOSE_DELAY=-1",
+        "spring.datasource.password="
+})
+class JwtKeyRingTest {
+
+    @Autowired
+    private JwtSigningKeyRepository keyRepository;
+
+    @Value("${app.jwt.keys.encryption-key}")
+    private String encryptionKey;
+
+    @Test
+    void concurrentInstancesCreateASingleKey() {
+        keyRepository.deleteAll();
+        JwtKeyRing first = keyRing();
+        JwtKeyRing second = keyRing();
+
+        first.rotateIfNeeded();
+        // La seconde instance a constaté l'absence de clé avant l'insertion de la première
+        LocalDateTime now = LocalDateTime.now();
+        ReflectionTestUtils.invokeMethod(second, "createKey", now, now, null);
+
+        assertThat(keyRepository.count()).isEqualTo(1);
+        assertThat(second.currentSigningKey().getKid()).isEqualTo(first.currentSigningKey().getKid());
+    }
+
+    private JwtKeyRing keyRing() {
+        return new JwtKeyRing(keyRepository, "RS256", Duration.ofDays(30), Duration.ofHours(1),
+                86_400_000L, encryptionKey);
+    }
+}
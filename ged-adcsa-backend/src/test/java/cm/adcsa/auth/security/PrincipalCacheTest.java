@@ -0,0 +1,105 @@
+package cm.adcsa.auth.security;
+
+import cm.adcsa.auth.dto.UserCreateRequest;
+import cm.adcsa.auth.dto.UserResponse;
+import cm.adcsa.auth.repository.RoleRepository;
+import cm.adcsa.auth.service.UserManagementService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Principaux relus depuis la base (mode sans état désactivé) et servis par le cache :
+ * un rôle retiré ne doit plus autoriser la requête suivante.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:principal-cache;DB_CLOSE_DELAY=-1",
+        "spring.datasource.password=",
+        "app.jwt.stateless-principal=false"
+})
+@AutoConfigureMockMvc
+class PrincipalCacheTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserManagementService userManagementService;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Test
+    void revokedRoleStopsWorkingOnNextRequest() throws Exception {
+        Long adminRoleId = roleRepository.findByNom("ADMIN").orElseThrow().getId();
+        UserResponse user = createUser("revoked");
+        userManagementService.assignRoleToUser(user.getId(), adminRoleId);
+        String token = login("revoked");
+
+        mockMvc.perform(get("/api/users/{id}", user.getId()).header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+        assertThat(principalCache.get("revoked")).isNotNull();
+
+        userManagementService.removeRoleFromUser(user.getId(), adminRoleId);
+
+        mockMvc.perform(get("/api/users/{id}", user.getId()).header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void cachedPrincipalIsNotSharedWithCallers() {
+        UserPrincipal principal = UserPrincipal.builder()
+                .id(-1L)
+                .username("copy")
+                .permissions(1L)
+                .password("hash")
+                .authorities(List.of(UserPrincipal.authority("ROLE_ADMIN")))
+                .build();
+
+        UserPrincipal returned = principalCache.put(principal);
+        returned.setPermissions(0L);
+        principalCache.get("copy").setPermissions(0L);
+
+        UserPrincipal cached = principalCache.get("copy");
+        assertThat(cached.getPermissions()).isEqualTo(1L);
+        assertThat(cached.getPassword()).isNull();
+    }
+
+    private UserResponse createUser(String username) {
+        UserCreateRequest request = new UserCreateRequest();
+        request.setNom("Test");
+        request.setPrenom(username);
+        request.setEmail(username + "@adcsa.cm");
+        request.setUsername(username);
+        request.setPassword("Password123!");
+        return userManagementService.createUser(request);
+    }
+
+    private String login(String username) throws Exception {
+        String body = mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"" + username + "\",\"password\":\"Password123!\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode response = objectMapper.readTree(body);
+        return response.get("accessToken").asText();
+    }
+}
@@ -0,0 +1,108 @@
+package cm.adcsa.auth.security;
+
+import cm.adcsa.auth.repository.RevokedTokenRepository;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Filtre de Bloom et passage de relais lors de la reconstruction : une révocation
+ * ne doit jamais disparaître du filtre, même si elle arrive pendant {@code rebuild()}.
+ */
+class TokenRevocationServiceTest {
+
+    @Test
+    void bloomFilterHasNoFalseNegatives() {
+        BloomFilter filter = new BloomFilter(10_000, 0.001);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("jti-" + i);
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("jti-" + i)).isTrue();
+        }
+    }
+
+    @Test
+    void bloomFilterFalsePositiveRateStaysNearTarget() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("jti-" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("absent-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(2_000);
+    }
+
+    @Test
+    void revocationDuringRebuildIsKept() {
+        Set<String> committed = ConcurrentHashMap.newKeySet();
+        List<Consumer<String>> onSnapshot = new ArrayList<>();
+        TokenRevocationService service = service(committed, onSnapshot);
+
+        // Révocation validée juste après la lecture des jti actifs par la reconstruction
+        onSnapshot.add(jti -> {
+            committed.add("late");
+            service.markRevoked("late");
+        });
+        service.rebuild();
+        onSnapshot.clear();
+
+        assertThat(service.isRevoked("late")).isTrue();
+    }
+
+    @Test
+    void concurrentRevocationsSurviveRepeatedRebuilds() throws InterruptedException {
+        Set<String> committed = ConcurrentHashMap.newKeySet();
+        TokenRevocationService service = service(committed, new ArrayList<>());
+        AtomicBoolean done = new AtomicBoolean();
+        Thread rebuilder = new Thread(() -> {
+            while (!done.get()) {
+                service.rebuild();
+            }
+        });
+        rebuilder.start();
+        try {
+            for (int i = 0; i < 20_000; i++) {
+                String jti = "jti-" + i;
+                committed.add(jti);
+                service.markRevoked(jti);
+            }
+        } finally {
+            done.set(true);
+            rebuilder.join();
+        }
+        for (int i = 0; i < 20_000; i++) {
+            assertThat(service.isRevoked("jti-" + i)).as("jti-" + i).isTrue();
+        }
+    }
+
+    // Dépôt en mémoire : "committed" tient lieu de table revoked_token
+    private static TokenRevocationService service(Set<String> committed, List<Consumer<String>> onSnapshot) {
+        RevokedTokenRepository repository = (RevokedTokenRepository) Proxy.newProxyInstance(
+                RevokedTokenRepository.class.getClassLoader(), new Class<?>[] {RevokedTokenRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "deleteExpired" -> 0;
+                    case "countActive" -> (long) committed.size();
+                    case "findActiveJtis" -> {
+                        List<String> snapshot = List.copyOf(committed);
+                        onSnapshot.forEach(callback -> callback.accept(null));
+                        yield snapshot;
+                    }
+                    case "existsById" -> committed.contains((String) args[0]);
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        return new TokenRevocationService(repository, new InMemoryClusterCoordinator(1_000, 1), 100_000, 0.001);
+    }
+}
@@ -184,13 +184,24 @@ export class AuthService {
 
   /**
    * Déconnecte l'utilisateur
-   * Supprime le token et les données utilisateur du localStorage
+   * Révoque les tokens côté serveur, supprime le token et les données utilisateur du localStorage
    * Redirige vers la page de connexion
    */
   logout(): void {
     console.log('Début de la déconnexion...');
     
     try {
+      // Révoquer les tokens côté serveur (les données locales sont supprimées sans attendre la réponse)
+      const token = this.getToken();
+      const refreshToken = localStorage.getItem('refreshToken');
+      if (token || refreshToken) {
+        const headers = token ? new HttpHeaders({ Authorization: `Bearer ${token}` }) : undefined;
+        this.http.post(`${this.apiUrl}/auth/logout`, { refreshToken }, { headers })
+          .subscribe({
+            error: (error) => console.warn('Révocation des tokens impossible:', error)
+          });
+      }
+
       // Supprimer le token et les données utilisateur
       localStorage.removeItem(this.TOKEN_KEY);
       localStorage.removeItem('refreshToken');